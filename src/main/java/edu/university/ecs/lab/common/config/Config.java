@@ -4,6 +4,7 @@ import edu.university.ecs.lab.common.error.Error;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.File;
 import java.util.List;
 import java.util.Objects;
 
@@ -18,6 +19,7 @@ import static edu.university.ecs.lab.common.error.Error.NULL_ERROR;
 public class Config {
     private static final String GIT_SCHEME_DOMAIN = "https://github.com/";
     private static final String GIT_PATH_EXTENSION = ".git";
+    private static final String FILE_SCHEME = "file://";
 
     /**
      * The name of the system analyzed
@@ -44,6 +46,32 @@ public class Config {
      */
     private List<String> relativeMicroservicePaths;
 
+    /**
+     * Number of commits to clone from the tip of each branch, 0 or absent clones the full history
+     */
+    private int cloneDepth;
+
+    /**
+     * Whether to clone only the base branch instead of all branches
+     */
+    private boolean singleBranch;
+
+    /**
+     * Whether to fetch the remote into an existing clone on start, absent uses the clone as it is
+     */
+    private boolean fetchOnStart;
+
+    /**
+     * Globs of the paths relative to the repository to analyze, e.g. "ts-*-service/src/main/**",
+     * absent analyzes the whole repository
+     */
+    private List<String> includePaths;
+
+    /**
+     * Globs of the paths relative to the repository to skip, e.g. "frontend/**"
+     */
+    private List<String> excludePaths;
+
     public Config(String systemName, String repositoryURL, List<String> relativeMicroservicePaths, String baseCommit, String baseBranch) throws Exception {
         Objects.requireNonNull(systemName, NULL_ERROR.getMessage());
         Objects.requireNonNull(repositoryURL, NULL_ERROR.getMessage());
@@ -72,7 +100,8 @@ public class Config {
      */
 
     private void validateRepositoryLink(String repositoryLink) {
-        if (!(repositoryLink.isBlank() || repositoryLink.startsWith(GIT_SCHEME_DOMAIN) || repositoryLink.endsWith(GIT_PATH_EXTENSION))) {
+        if (!(repositoryLink.isBlank() || repositoryLink.startsWith(GIT_SCHEME_DOMAIN) || repositoryLink.endsWith(GIT_PATH_EXTENSION)
+                || repositoryLink.startsWith(FILE_SCHEME) || new File(repositoryLink).isDirectory())) {
             Error.reportAndExit(Error.INVALID_REPOSITORY_LINK);
         }
     }
@@ -93,9 +122,14 @@ public class Config {
      * @return the plain string repository name with no path related characters
      */
     public String getRepoName() {
-        int lastSlashIndex = repositoryURL.lastIndexOf("/");
-        int lastDotIndex = repositoryURL.lastIndexOf('.');
-        return repositoryURL.substring(lastSlashIndex + 1, lastDotIndex);
+        // Local paths and file:// URLs may end with a separator and need not end with .git
+        String url = repositoryURL.replaceAll("[/\\\\]+$", "");
+        if (url.endsWith(GIT_PATH_EXTENSION)) {
+            url = url.substring(0, url.length() - GIT_PATH_EXTENSION.length());
+        }
+
+        int lastSlashIndex = Math.max(url.lastIndexOf('/'), url.lastIndexOf('\\'));
+        return url.substring(lastSlashIndex + 1);
     }
 
 }
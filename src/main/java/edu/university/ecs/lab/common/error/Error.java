@@ -18,7 +18,15 @@ public enum Error {
     INVALID_ARGS(8, "Invalid arguments!"),
     INVALID_JSON_READ(9, "Unable to read JSON from file!"),
     INVALID_JSON_WRITE(10, "Unable to write JSON to file!"),
-    JPARSE_FAILED(10, "Failed to parse Java Code!");
+    JPARSE_FAILED(10, "Failed to parse Java Code!"),
+    HISTORY_FAILED(11, "History analysis failed!"),
+    WATCH_FAILED(12, "Watching the working tree failed!"),
+    SERVER_FAILED(13, "Starting the analysis server failed!");
+
+    /**
+     * Whether reporting an error exits the process, long-running modes clear it to hand errors to their caller
+     */
+    private static volatile boolean exitOnError = true;
 
     /**
      *  The unique error code identifying the error type.
@@ -40,12 +48,26 @@ public enum Error {
         this.message = message;
     }
 
+    /**
+     * Sets whether {@link #reportAndExit(Error)} exits the program or throws an {@link ErrorException}.
+     *
+     * @param exitOnError false to throw instead of exiting, e.g. while serving requests.
+     */
+    public static void setExitOnError(boolean exitOnError) {
+        Error.exitOnError = exitOnError;
+    }
+
     /**
      * Prints the error message to standard error and exits the program with the error code.
+     * When exiting is disabled the error is thrown as an {@link ErrorException} instead.
      *
      * @param error The error enum value to report and exit with.
      */
     public static void reportAndExit(Error error) {
+        if (!exitOnError) {
+            throw new ErrorException(error);
+        }
+
         System.err.println(error.getMessage());
         System.exit(error.code);
     }
@@ -0,0 +1,25 @@
+package edu.university.ecs.lab.common.error;
+
+import lombok.Getter;
+
+/**
+ * Exception carrying an {@link Error}, thrown by {@link Error#reportAndExit(Error)} instead of
+ * exiting when the tool runs as a long-running process.
+ */
+@Getter
+public class ErrorException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The error reported
+     */
+    private final Error error;
+
+    /**
+     * @param error the error reported
+     */
+    public ErrorException(Error error) {
+        super(error.toString());
+        this.error = error;
+    }
+}
@@ -3,6 +3,7 @@
  * <p>
  * This package contains an enumeration representing various error types that can occur during
  * the operation of the tool. Each error type includes an error code and a descriptive message
- * to identify and communicate errors effectively.
+ * to identify and communicate errors effectively. Errors normally exit the tool, long-running
+ * modes receive them as an {@link edu.university.ecs.lab.common.error.ErrorException} instead.
  */
 package edu.university.ecs.lab.common.error;
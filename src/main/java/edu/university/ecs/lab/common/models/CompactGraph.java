@@ -0,0 +1,175 @@
+package edu.university.ecs.lab.common.models;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Represents an immutable, integer indexed view of a {@link NetworkGraph}. Node names are interned
+ * to ids in the iteration order of {@link NetworkGraph#getNodes()} and edges are stored as
+ * compressed sparse rows, so the edges leaving node v are the entries
+ * outTargets[outOffsets[v]] .. outTargets[outOffsets[v + 1] - 1] (and likewise for incoming edges).
+ * Every {@link Edge} of the graph has one entry in each direction and the entries of a node keep
+ * the iteration order of {@link NetworkGraph#getEdges()}.
+ */
+@Getter
+public class CompactGraph {
+    /**
+     * Node names indexed by node id
+     */
+    private final String[] names;
+
+    /**
+     * Start of the outgoing edges of each node, of length size() + 1
+     */
+    private final int[] outOffsets;
+
+    /**
+     * Target node id of each outgoing edge
+     */
+    private final int[] outTargets;
+
+    /**
+     * Weight of each outgoing edge
+     */
+    private final int[] outWeights;
+
+    /**
+     * Start of the incoming edges of each node, of length size() + 1
+     */
+    private final int[] inOffsets;
+
+    /**
+     * Source node id of each incoming edge
+     */
+    private final int[] inSources;
+
+    /**
+     * Weight of each incoming edge
+     */
+    private final int[] inWeights;
+
+    /**
+     * Map of node name to node id
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> ids;
+
+    /**
+     * Build the compact graph from a network graph
+     *
+     * @param networkGraph the network graph to index
+     */
+    public CompactGraph(NetworkGraph networkGraph) {
+        ids = new HashMap<>();
+        for (String node : networkGraph.getNodes()) {
+            ids.putIfAbsent(node, ids.size());
+        }
+
+        // Intern edge ends that are missing from the node set as well
+        int edgeCount = networkGraph.getEdges().size();
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        int[] weights = new int[edgeCount];
+        int e = 0;
+        for (Edge edge : networkGraph.getEdges()) {
+            sources[e] = intern(edge.getSource());
+            targets[e] = intern(edge.getTarget());
+            weights[e] = edge.getWeight();
+            e++;
+        }
+
+        names = new String[ids.size()];
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            names[entry.getValue()] = entry.getKey();
+        }
+
+        outOffsets = new int[names.length + 1];
+        outTargets = new int[edgeCount];
+        outWeights = new int[edgeCount];
+        fill(sources, targets, weights, outOffsets, outTargets, outWeights);
+
+        inOffsets = new int[names.length + 1];
+        inSources = new int[edgeCount];
+        inWeights = new int[edgeCount];
+        fill(targets, sources, weights, inOffsets, inSources, inWeights);
+    }
+
+    private int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = ids.size();
+            ids.put(name, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Stable counting sort of the edge list by the "from" end into CSR arrays
+     */
+    private static void fill(int[] from, int[] to, int[] weights, int[] offsets, int[] adjacent, int[] adjacentWeights) {
+        for (int node : from) {
+            offsets[node + 1]++;
+        }
+        for (int v = 0; v < offsets.length - 1; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] next = new int[offsets.length - 1];
+        System.arraycopy(offsets, 0, next, 0, next.length);
+        for (int e = 0; e < from.length; e++) {
+            int slot = next[from[e]]++;
+            adjacent[slot] = to[e];
+            adjacentWeights[slot] = weights[e];
+        }
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * @param name the node name to search for
+     * @return the id of the node or -1 if the graph does not contain it
+     */
+    public int getId(String name) {
+        return ids.getOrDefault(name, -1);
+    }
+
+    /**
+     * @param id the node id
+     * @return the name of the node
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * @param id the node id
+     * @return the number of edges leaving the node
+     */
+    public int outDegree(int id) {
+        return outOffsets[id + 1] - outOffsets[id];
+    }
+
+    /**
+     * @param id the node id
+     * @return the number of edges entering the node
+     */
+    public int inDegree(int id) {
+        return inOffsets[id + 1] - inOffsets[id];
+    }
+}
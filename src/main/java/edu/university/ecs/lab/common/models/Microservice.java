@@ -1,12 +1,14 @@
 package edu.university.ecs.lab.common.models;
 
 import com.google.gson.JsonObject;
+import edu.university.ecs.lab.common.models.enums.ClassRole;
 import edu.university.ecs.lab.common.models.serialization.JsonSerializable;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -96,36 +98,51 @@ public class Microservice implements JsonSerializable {
      *
      * @param path the path to search for removal
      */
-
     public void removeJClass(String path) {
-        Set<JClass> classes = getClasses();
-        JClass removeClass = null;
-
-        for (JClass jClass : classes) {
-            if (jClass.getPath().equals(path)) {
-                removeClass = jClass;
-                break;
+        // If we cannot find the class no problem, we will skip it quietly
+        for (Set<JClass> classes : List.of(controllers, services, repositories, entities)) {
+            if (classes.removeIf(jClass -> jClass.getPath().equals(path))) {
+                return;
             }
         }
+    }
 
-        // If we cannot find the class no problem, we will skip it quietly
-        if (removeClass == null) {
+    /**
+     * This method removes a JClass from the microservice, only
+     * the classes of the same role are searched
+     *
+     * @param jClass the class to remove
+     */
+    public void removeJClass(JClass jClass) {
+        Set<JClass> classes = getClasses(jClass.getClassRole());
+        if (classes == null) {
             return;
         }
 
-        switch (removeClass.getClassRole()) {
+        // Fall back to a path search in case the class changed since it was added
+        if (!classes.remove(jClass)) {
+            classes.removeIf(c -> c.getPath().equals(jClass.getPath()));
+        }
+    }
+
+    /**
+     * This method returns the live set of classes of a role
+     *
+     * @param classRole the role of the classes
+     * @return the set of classes or null if the role is not held by a microservice
+     */
+    private Set<JClass> getClasses(ClassRole classRole) {
+        switch (classRole) {
             case CONTROLLER:
-                controllers.remove(removeClass);
-                break;
+                return controllers;
             case SERVICE:
-                services.remove(removeClass);
-                break;
+                return services;
             case REPOSITORY:
-                repositories.remove(removeClass);
-                break;
+                return repositories;
             case ENTITY:
-                entities.remove(removeClass);
-                break;
+                return entities;
+            default:
+                return null;
         }
     }
 
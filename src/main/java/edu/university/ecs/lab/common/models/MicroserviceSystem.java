@@ -79,7 +79,7 @@ public class MicroserviceSystem implements JsonSerializable {
 
     /**
      * Given a new or modified microservice, we must adopt awaiting
-     * orphans based on their file paths containing the microservices
+     * orphans based on their file paths lying under the microservices
      * (folder) path
      *
      * @param microservice the microservice adopting orphans
@@ -88,8 +88,9 @@ public class MicroserviceSystem implements JsonSerializable {
         Set<JClass> updatedOrphans = new HashSet<>(getOrphans());
 
         for (JClass jClass : getOrphans()) {
-            // If the microservice is in the same folder as the path to the microservice
-            if (jClass.getPath().contains(microservice.getPath())) {
+            // If the class is in the folder of the microservice, matched by whole path segments
+            // so that /ts-order does not adopt /ts-order-service classes
+            if (jClass.getPath().startsWith(microservice.getPath() + "/")) {
                 microservice.addJClass(jClass);
                 updatedOrphans.remove(jClass);
             }
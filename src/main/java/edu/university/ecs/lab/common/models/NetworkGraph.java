@@ -2,13 +2,13 @@ package edu.university.ecs.lab.common.models;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
 import edu.university.ecs.lab.common.models.serialization.JsonSerializable;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -114,38 +114,40 @@ public class NetworkGraph implements JsonSerializable {
             }
         }
 
-        List<Endpoint> endpoints = new ArrayList<>();
+        // Index endpoints by http method and url so each rest call only visits its matches
+        Map<HttpMethod, Map<String, List<Endpoint>>> endpointIndex = new EnumMap<>(HttpMethod.class);
 
         for (Microservice microservice : microserviceSystem.getMicroservices()) {
             for (JClass controller : microservice.getControllers()) {
-                endpoints.addAll(controller.getMethods().stream()
-                        .filter(methods -> methods instanceof Endpoint)
-                        .map(methods -> (Endpoint) methods)
-                        .collect(Collectors.toList()));
+                for (Method method : controller.getMethods()) {
+                    // An endpoint without an http method can never match a rest call
+                    if (method instanceof Endpoint && ((Endpoint) method).getHttpMethod() != null) {
+                        Endpoint endpoint = (Endpoint) method;
+                        endpointIndex.computeIfAbsent(endpoint.getHttpMethod(), k -> new HashMap<>())
+                                .computeIfAbsent(endpoint.getUrl(), k -> new ArrayList<>())
+                                .add(endpoint);
+                    }
+                }
             }
         }
 
-        List<Edge> edgesList = new ArrayList<>();
+        Map<Edge, Integer> edgeCounts = new HashMap<>();
         this.nodes = new HashSet<>();
 
         for (RestCall restCall : restCalls) {
-            for (Endpoint endpoint : endpoints) {
-                if (restCall.getUrl().equals(endpoint.getUrl()) && restCall.getHttpMethod().equals(endpoint.getHttpMethod())) {
-                    edgesList.add(new Edge(restCall.getMicroserviceName(), endpoint.getMicroserviceName(), endpoint.getUrl(), 0));
-                    this.nodes.add(endpoint.getMicroserviceName());
-                    this.nodes.add(restCall.getMicroserviceName());
-                }
+            List<Endpoint> matches = endpointIndex.getOrDefault(restCall.getHttpMethod(), Collections.emptyMap())
+                    .getOrDefault(restCall.getUrl(), Collections.emptyList());
+
+            for (Endpoint endpoint : matches) {
+                edgeCounts.merge(new Edge(restCall.getMicroserviceName(), endpoint.getMicroserviceName(), endpoint.getUrl(), 0), 1, Integer::sum);
+                this.nodes.add(endpoint.getMicroserviceName());
+                this.nodes.add(restCall.getMicroserviceName());
             }
         }
 
-        this.edges = new HashSet<>();
-
-        Map<Edge, Long> edgeDuplicateMap = edgesList.stream()
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-
-        this.edges = edgeDuplicateMap.entrySet().stream().map(entry -> {
+        this.edges = edgeCounts.entrySet().stream().map(entry -> {
             Edge edge = entry.getKey();
-            edge.setWeight(Math.toIntExact(entry.getValue()));
+            edge.setWeight(entry.getValue());
             return edge;
         }).collect(Collectors.toSet());
 
@@ -8,6 +8,8 @@
  *   - {@link edu.university.ecs.lab.common.models.serialization}: Serialization and deserialization utilities for converting Java objects to JSON and vice versa
  * - Other model classes representing key elements of the microservice system:
  *   - {@link edu.university.ecs.lab.common.models.Annotation}: Represents annotations within classes.
+ *   - {@link edu.university.ecs.lab.common.models.CompactGraph}: Integer indexed adjacency arrays of a
+ *     network graph used by the antipattern detectors.
  *   - {@link edu.university.ecs.lab.common.models.Edge}: Represents an edge in a network graph schema
  *     modeling microservice connections.
  *   - {@link edu.university.ecs.lab.common.models.Endpoint}: Represents an endpoint exposed by a microservice.
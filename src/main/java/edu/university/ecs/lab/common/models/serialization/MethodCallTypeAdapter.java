@@ -0,0 +1,86 @@
+package edu.university.ecs.lab.common.models.serialization;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import edu.university.ecs.lab.common.models.MethodCall;
+import edu.university.ecs.lab.common.models.RestCall;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+
+import java.io.IOException;
+
+import static edu.university.ecs.lab.common.models.serialization.MethodTypeAdapter.nextString;
+
+/**
+ * Class for reading and writing a MethodCall when using Gson. Unlike {@link MethodCallDeserializer}
+ * the JSON is read token by token and no intermediate JsonObject is built, the presence of a "url"
+ * decides between {@link RestCall} and {@link MethodCall} once the object has been read.
+ */
+public class MethodCallTypeAdapter extends TypeAdapter<MethodCall> {
+
+    @Override
+    public void write(JsonWriter out, MethodCall methodCall) throws IOException {
+        if (methodCall == null) {
+            out.nullValue();
+            return;
+        }
+
+        StreamingJsonWriter.writeMethodCall(out, methodCall);
+    }
+
+    @Override
+    public MethodCall read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String name = null, packageAndClassName = null, objectName = null, calledFrom = null, parameterContents = null;
+        String url = null, httpMethod = null, microserviceName = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name":
+                    name = nextString(in);
+                    break;
+                case "packageAndClassName":
+                    packageAndClassName = nextString(in);
+                    break;
+                case "objectName":
+                    objectName = nextString(in);
+                    break;
+                case "calledFrom":
+                    calledFrom = nextString(in);
+                    break;
+                case "parameterContents":
+                    parameterContents = nextString(in);
+                    break;
+                case "url":
+                    url = nextString(in);
+                    break;
+                case "httpMethod":
+                    httpMethod = nextString(in);
+                    break;
+                case "microserviceName":
+                    microserviceName = nextString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (url == null) {
+            return new MethodCall(name, packageAndClassName, objectName, calledFrom, parameterContents);
+        }
+
+        RestCall restCall = new RestCall(name, packageAndClassName, objectName, calledFrom, parameterContents);
+        restCall.setUrl(url);
+        restCall.setHttpMethod(HttpMethod.valueOf(httpMethod));
+        restCall.setMicroserviceName(microserviceName);
+
+        return restCall;
+    }
+}
@@ -0,0 +1,162 @@
+package edu.university.ecs.lab.common.models.serialization;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import edu.university.ecs.lab.common.models.Annotation;
+import edu.university.ecs.lab.common.models.Endpoint;
+import edu.university.ecs.lab.common.models.Field;
+import edu.university.ecs.lab.common.models.Method;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Class for reading and writing a Method when using Gson. Unlike {@link MethodDeserializer} the
+ * JSON is read token by token and no intermediate JsonObject is built, the presence of a "url"
+ * decides between {@link Endpoint} and {@link Method} once the object has been read.
+ */
+public class MethodTypeAdapter extends TypeAdapter<Method> {
+
+    @Override
+    public void write(JsonWriter out, Method method) throws IOException {
+        if (method == null) {
+            out.nullValue();
+            return;
+        }
+
+        StreamingJsonWriter.writeMethod(out, method);
+    }
+
+    @Override
+    public Method read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String name = null, packageAndClassName = null, returnType = null;
+        String url = null, httpMethod = null, microserviceName = null;
+        Set<Annotation> annotations = new HashSet<>();
+        Set<Field> parameters = new HashSet<>();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name":
+                    name = nextString(in);
+                    break;
+                case "packageAndClassName":
+                    packageAndClassName = nextString(in);
+                    break;
+                case "returnType":
+                    returnType = nextString(in);
+                    break;
+                case "annotations":
+                    readAnnotations(in, annotations);
+                    break;
+                case "parameters":
+                    readFields(in, parameters);
+                    break;
+                case "url":
+                    url = nextString(in);
+                    break;
+                case "httpMethod":
+                    httpMethod = nextString(in);
+                    break;
+                case "microserviceName":
+                    microserviceName = nextString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (url == null) {
+            return new Method(name, packageAndClassName, parameters, returnType, annotations);
+        }
+
+        Endpoint endpoint = new Endpoint(name, packageAndClassName, parameters, returnType, annotations);
+        endpoint.setUrl(url);
+        endpoint.setHttpMethod(HttpMethod.valueOf(httpMethod));
+        endpoint.setMicroserviceName(microserviceName);
+
+        return endpoint;
+    }
+
+    /**
+     * Read a string value or null
+     *
+     * @param in the reader positioned at a value
+     * @return the string value or null if the value is a JSON null
+     * @throws IOException if reading fails
+     */
+    static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        return in.nextString();
+    }
+
+    private static void readAnnotations(JsonReader in, Set<Annotation> annotations) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            String name = null, packageAndClassName = null, contents = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "packageAndClassName":
+                        packageAndClassName = nextString(in);
+                        break;
+                    case "contents":
+                        contents = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            annotations.add(new Annotation(name, packageAndClassName, contents));
+        }
+        in.endArray();
+    }
+
+    private static void readFields(JsonReader in, Set<Field> fields) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            String name = null, packageAndClassName = null, type = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = nextString(in);
+                        break;
+                    case "packageAndClassName":
+                        packageAndClassName = nextString(in);
+                        break;
+                    case "type":
+                        type = nextString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            fields.add(new Field(name, packageAndClassName, type));
+        }
+        in.endArray();
+    }
+}
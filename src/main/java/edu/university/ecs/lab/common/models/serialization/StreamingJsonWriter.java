@@ -0,0 +1,199 @@
+package edu.university.ecs.lab.common.models.serialization;
+
+import com.google.gson.stream.JsonWriter;
+import edu.university.ecs.lab.common.models.*;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Class for writing a {@link MicroserviceSystem} incrementally with a Gson {@link JsonWriter}.
+ * Produces the same JSON as serializing {@link MicroserviceSystem#toJsonObject()} with Gson,
+ * but walks Microservice, JClass, Method and MethodCall directly so no JsonObject tree of the
+ * whole system is ever built.
+ */
+public class StreamingJsonWriter {
+    private static final String INDENT = "  ";
+
+    private final JsonWriter writer;
+
+    /**
+     * @param writer the writer to write to
+     * @param prettyPrint whether to indent the output or write it compactly
+     */
+    public StreamingJsonWriter(JsonWriter writer, boolean prettyPrint) {
+        this.writer = writer;
+
+        // Match default Gson settings so the output is identical to Gson#toJson
+        writer.setIndent(prettyPrint ? INDENT : "");
+        writer.setHtmlSafe(true);
+        writer.setSerializeNulls(false);
+    }
+
+    /**
+     * This method writes a microservice system see {@link MicroserviceSystem#toJsonObject()}
+     *
+     * @param microserviceSystem the system to write
+     * @throws IOException if writing fails
+     */
+    public void write(MicroserviceSystem microserviceSystem) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(microserviceSystem.getName());
+        writer.name("commitID").value(microserviceSystem.getCommitID());
+
+        writer.name("microservices").beginArray();
+        for (Microservice microservice : microserviceSystem.getMicroservices()) {
+            writeMicroservice(microservice);
+        }
+        writer.endArray();
+
+        writer.name("orphans");
+        writeClasses(microserviceSystem.getOrphans());
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * see {@link Microservice#toJsonObject()}
+     */
+    private void writeMicroservice(Microservice microservice) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(microservice.getName());
+        writer.name("path").value(microservice.getPath());
+        writer.name("controllers");
+        writeClasses(microservice.getControllers());
+        writer.name("entities");
+        writeClasses(microservice.getEntities());
+        writer.name("services");
+        writeClasses(microservice.getServices());
+        writer.name("repositories");
+        writeClasses(microservice.getRepositories());
+        writer.endObject();
+    }
+
+    private void writeClasses(Set<JClass> jClasses) throws IOException {
+        writer.beginArray();
+        for (JClass jClass : jClasses) {
+            writeClass(jClass);
+        }
+        writer.endArray();
+    }
+
+    /**
+     * see {@link JClass#toJsonObject()}
+     */
+    private void writeClass(JClass jClass) throws IOException {
+        writer.beginObject();
+        writer.name("packageName").value(jClass.getPackageName());
+        writer.name("name").value(jClass.getName());
+        writer.name("path").value(jClass.getPath());
+        writer.name("classRole").value(jClass.getClassRole().name());
+
+        writer.name("annotations");
+        writeAnnotations(writer, jClass.getAnnotations());
+
+        writer.name("fields").beginArray();
+        for (Field field : jClass.getFields()) {
+            writeField(writer, field);
+        }
+        writer.endArray();
+
+        writer.name("methods").beginArray();
+        for (Method method : jClass.getMethods()) {
+            writeMethod(writer, method);
+        }
+        writer.endArray();
+
+        writer.name("methodCalls").beginArray();
+        for (MethodCall methodCall : jClass.getMethodCalls()) {
+            writeMethodCall(writer, methodCall);
+        }
+        writer.endArray();
+
+        writer.name("implementedTypes").beginArray();
+        for (String implementedType : jClass.getImplementedTypes()) {
+            writer.value(implementedType);
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    /**
+     * This method writes a method or endpoint see {@link Method#toJsonObject()} and {@link Endpoint#toJsonObject()}
+     *
+     * @param writer the writer to write to
+     * @param method the method to write
+     * @throws IOException if writing fails
+     */
+    public static void writeMethod(JsonWriter writer, Method method) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(method.getName());
+        writer.name("packageAndClassName").value(method.getPackageAndClassName());
+        writer.name("annotations");
+        writeAnnotations(writer, method.getAnnotations());
+        writer.name("parameters").beginArray();
+        for (Field parameter : method.getParameters()) {
+            writeField(writer, parameter);
+        }
+        writer.endArray();
+        writer.name("returnType").value(method.getReturnType());
+
+        if (method instanceof Endpoint) {
+            Endpoint endpoint = (Endpoint) method;
+            writer.name("url").value(endpoint.getUrl());
+            writer.name("httpMethod").value(endpoint.getHttpMethod().name());
+            writer.name("microserviceName").value(endpoint.getMicroserviceName());
+        }
+        writer.endObject();
+    }
+
+    /**
+     * This method writes a method call or rest call see {@link MethodCall#toJsonObject()} and {@link RestCall#toJsonObject()}
+     *
+     * @param writer the writer to write to
+     * @param methodCall the method call to write
+     * @throws IOException if writing fails
+     */
+    public static void writeMethodCall(JsonWriter writer, MethodCall methodCall) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(methodCall.getName());
+        writer.name("packageAndClassName").value(methodCall.getPackageAndClassName());
+        writer.name("objectName").value(methodCall.getObjectName());
+        writer.name("calledFrom").value(methodCall.getCalledFrom());
+        writer.name("parameterContents").value(methodCall.getParameterContents());
+
+        if (methodCall instanceof RestCall) {
+            RestCall restCall = (RestCall) methodCall;
+            writer.name("url").value(restCall.getUrl());
+            writer.name("httpMethod").value(restCall.getHttpMethod().name());
+            writer.name("microserviceName").value(restCall.getMicroserviceName());
+        }
+        writer.endObject();
+    }
+
+    /**
+     * see {@link Annotation#toJsonObject()}
+     */
+    private static void writeAnnotations(JsonWriter writer, Set<Annotation> annotations) throws IOException {
+        writer.beginArray();
+        for (Annotation annotation : annotations) {
+            writer.beginObject();
+            writer.name("name").value(annotation.getName());
+            writer.name("packageAndClassName").value(annotation.getPackageAndClassName());
+            writer.name("contents").value(annotation.getContents());
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    /**
+     * see {@link Field#toJsonObject()}
+     */
+    private static void writeField(JsonWriter writer, Field field) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(field.getName());
+        writer.name("packageAndClassName").value(field.getPackageAndClassName());
+        writer.name("type").value(field.getType());
+        writer.endObject();
+    }
+}
@@ -11,6 +11,11 @@
  * - {@link edu.university.ecs.lab.common.models.serialization.MethodDeserializer}: Deserializer for
  *   converting JSON to {@link edu.university.ecs.lab.common.models.Method} and
  *   {@link edu.university.ecs.lab.common.models.Endpoint} objects.
+ * - {@link edu.university.ecs.lab.common.models.serialization.MethodCallTypeAdapter} and
+ *   {@link edu.university.ecs.lab.common.models.serialization.MethodTypeAdapter}: Streaming
+ *   replacements for the deserializers above that read in a single token pass.
+ * - {@link edu.university.ecs.lab.common.models.serialization.StreamingJsonWriter}: Writer for
+ *   serializing a {@link edu.university.ecs.lab.common.models.MicroserviceSystem} incrementally.
  * <p>
  * These classes facilitate conversion between Java objects and JSON representations.
  */
@@ -0,0 +1,35 @@
+package edu.university.ecs.lab.common.recognizers;
+
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+
+import java.util.Set;
+
+/**
+ * Interface for recognizing the endpoints a web framework declares through annotations.
+ * Implementations are found with {@link java.util.ServiceLoader} and are dispatched to by
+ * annotation name, see {@link RecognizerRegistry}.
+ */
+public interface EndpointRecognizer {
+    /**
+     * @return the names of the annotations this recognizer handles, as written in source
+     */
+    Set<String> getAnnotationNames();
+
+    /**
+     * This method determines the HTTP method an annotation maps an endpoint to
+     *
+     * @param annotation an annotation with one of this recognizer's names
+     * @return the HTTP method, NONE if the annotation does not determine one
+     */
+    HttpMethod getHttpMethod(AnnotationExpr annotation);
+
+    /**
+     * This method determines the path an annotation declares, used both on classes (as the
+     * prefix of all their endpoints) and on methods
+     *
+     * @param annotation an annotation with one of this recognizer's names
+     * @return the path, null if the annotation does not declare one
+     */
+    String getPath(AnnotationExpr annotation);
+}
@@ -0,0 +1,117 @@
+package edu.university.ecs.lab.common.recognizers;
+
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the endpoint and REST call recognizers available on the classpath. The names
+ * each recognizer handles are indexed once, so finding the recognizer for an annotation or a
+ * call is a single map lookup however many recognizers are registered.
+ */
+public class RecognizerRegistry {
+    private final Map<String, EndpointRecognizer> endpointRecognizers = new HashMap<>();
+    private final Map<String, RestCallRecognizer> restCallRecognizers = new HashMap<>();
+
+    /**
+     * Index the given recognizers, a name already handled by an earlier recognizer is kept by it
+     *
+     * @param endpointRecognizers the endpoint recognizers in priority order
+     * @param restCallRecognizers the REST call recognizers in priority order
+     */
+    public RecognizerRegistry(Iterable<EndpointRecognizer> endpointRecognizers, Iterable<RestCallRecognizer> restCallRecognizers) {
+        for (EndpointRecognizer recognizer : endpointRecognizers) {
+            for (String name : recognizer.getAnnotationNames()) {
+                register(this.endpointRecognizers, name, recognizer);
+            }
+        }
+        for (RestCallRecognizer recognizer : restCallRecognizers) {
+            for (String name : recognizer.getObjectNames()) {
+                register(this.restCallRecognizers, name, recognizer);
+            }
+        }
+    }
+
+    /**
+     * This method creates a registry of all recognizers registered as services under
+     * META-INF/services on the classpath
+     *
+     * @return the registry of the recognizers found
+     */
+    public static RecognizerRegistry load() {
+        return new RecognizerRegistry(ServiceLoader.load(EndpointRecognizer.class), ServiceLoader.load(RestCallRecognizer.class));
+    }
+
+    /**
+     * @param annotationName the name of an annotation as written in source
+     * @return the recognizer handling the annotation, null if there is none
+     */
+    public EndpointRecognizer getEndpointRecognizer(String annotationName) {
+        return endpointRecognizers.get(annotationName);
+    }
+
+    /**
+     * @param objectName the name of the object a method is called on
+     * @return the recognizer handling calls on the object, null if there is none
+     */
+    public RestCallRecognizer getRestCallRecognizer(String objectName) {
+        return restCallRecognizers.get(objectName);
+    }
+
+    /**
+     * This method finds the path declared by a list of annotations
+     *
+     * @param annotations the annotations of a class or method
+     * @return the path of the first annotation declaring one, empty if none does
+     */
+    public String findPath(List<AnnotationExpr> annotations) {
+        for (AnnotationExpr annotation : annotations) {
+            EndpointRecognizer recognizer = endpointRecognizers.get(annotation.getNameAsString());
+            if (recognizer == null) {
+                continue;
+            }
+
+            String path = recognizer.getPath(annotation);
+            if (path != null) {
+                return path;
+            }
+        }
+
+        return "";
+    }
+
+    /**
+     * This method finds the HTTP method determined by a list of annotations
+     *
+     * @param annotations the annotations of a method
+     * @return the HTTP method of the last annotation determining one, NONE if none does
+     */
+    public HttpMethod findHttpMethod(List<AnnotationExpr> annotations) {
+        HttpMethod httpMethod = HttpMethod.NONE;
+        for (AnnotationExpr annotation : annotations) {
+            EndpointRecognizer recognizer = endpointRecognizers.get(annotation.getNameAsString());
+            if (recognizer == null) {
+                continue;
+            }
+
+            HttpMethod found = recognizer.getHttpMethod(annotation);
+            if (found != HttpMethod.NONE) {
+                httpMethod = found;
+            }
+        }
+
+        return httpMethod;
+    }
+
+    private static <T> void register(Map<String, T> recognizers, String name, T recognizer) {
+        T existing = recognizers.putIfAbsent(name, recognizer);
+        if (existing != null && existing != recognizer) {
+            System.out.println("Warning: " + recognizer.getClass().getName() + " ignored for " + name
+                    + ", already handled by " + existing.getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package edu.university.ecs.lab.common.recognizers;
+
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import edu.university.ecs.lab.common.models.MethodCall;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Interface for recognizing the REST calls a client library makes. Implementations are found
+ * with {@link java.util.ServiceLoader} and are dispatched to by the name of the object a method
+ * is called on, see {@link RecognizerRegistry}.
+ */
+public interface RestCallRecognizer {
+    /**
+     * @return the names of the client objects this recognizer handles (e.g. restTemplate)
+     */
+    Set<String> getObjectNames();
+
+    /**
+     * This method finds the URL a call on one of this recognizer's objects is made to
+     *
+     * @param methodCallExpr the call expression
+     * @param urlResolver resolves an expression of the calling file to a URL, following the
+     *                    fields and string concatenations it is made of
+     * @return the URL, empty if the call is not a REST call
+     */
+    String getUrl(MethodCallExpr methodCallExpr, Function<Expression, String> urlResolver);
+
+    /**
+     * This method determines the HTTP method of a call that has a URL
+     *
+     * @param methodCallExpr the call expression
+     * @param methodCall the MethodCall model of the call
+     * @return the HTTP method, NONE if it cannot be determined
+     */
+    HttpMethod getHttpMethod(MethodCallExpr methodCallExpr, MethodCall methodCall);
+}
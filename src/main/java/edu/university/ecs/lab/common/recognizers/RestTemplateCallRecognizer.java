@@ -0,0 +1,56 @@
+package edu.university.ecs.lab.common.recognizers;
+
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import edu.university.ecs.lab.common.models.MethodCall;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Recognizes calls made through a Spring RestTemplate, the URL being the first argument
+ */
+public class RestTemplateCallRecognizer implements RestCallRecognizer {
+    @Override
+    public Set<String> getObjectNames() {
+        return Set.of("restTemplate");
+    }
+
+    @Override
+    public String getUrl(MethodCallExpr methodCallExpr, Function<Expression, String> urlResolver) {
+        if (methodCallExpr.getArguments().isEmpty()) {
+            return "";
+        }
+
+        // Arbitrary index of the url parameter
+        return urlResolver.apply(methodCallExpr.getArgument(0));
+    }
+
+    @Override
+    public HttpMethod getHttpMethod(MethodCallExpr methodCallExpr, MethodCall methodCall) {
+        return findHttpMethod(methodCall.getParameterContents());
+    }
+
+    /**
+     * This method finds an HttpMethod.X constant passed as an argument
+     *
+     * @param parameterContents the arguments of a call
+     * @return the HTTP method passed, NONE if there is none
+     */
+    static HttpMethod findHttpMethod(String parameterContents) {
+        if (parameterContents.contains("HttpMethod.GET")) {
+            return HttpMethod.GET;
+        } else if (parameterContents.contains("HttpMethod.POST")) {
+            return HttpMethod.POST;
+        } else if (parameterContents.contains("HttpMethod.DELETE")) {
+            return HttpMethod.DELETE;
+        } else if (parameterContents.contains("HttpMethod.PUT")) {
+            return HttpMethod.PUT;
+        } else if (parameterContents.contains("HttpMethod.PATCH")) {
+            return HttpMethod.PATCH;
+        }
+
+        return HttpMethod.NONE;
+    }
+}
@@ -0,0 +1,106 @@
+package edu.university.ecs.lab.common.recognizers;
+
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.ArrayInitializerExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MemberValuePair;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.intermediate.utils.StringParserUtils;
+
+import java.util.Set;
+
+/**
+ * Recognizes Spring Web endpoints, declared by the Get/Post/Put/Delete/PatchMapping shortcuts
+ * or by RequestMapping with an explicit method
+ */
+public class SpringEndpointRecognizer implements EndpointRecognizer {
+    private static final String REQUEST_MAPPING = "RequestMapping";
+
+    @Override
+    public Set<String> getAnnotationNames() {
+        return Set.of("GetMapping", "PostMapping", "PutMapping", "DeleteMapping", "PatchMapping", REQUEST_MAPPING);
+    }
+
+    @Override
+    public HttpMethod getHttpMethod(AnnotationExpr annotation) {
+        switch (annotation.getNameAsString()) {
+            case "GetMapping":
+                return HttpMethod.GET;
+            case "PostMapping":
+                return HttpMethod.POST;
+            case "PutMapping":
+                return HttpMethod.PUT;
+            case "DeleteMapping":
+                return HttpMethod.DELETE;
+            case "PatchMapping":
+                return HttpMethod.PATCH;
+            case REQUEST_MAPPING:
+                Expression method = getMember(annotation, "method");
+                return method == null ? HttpMethod.NONE : parseRequestMethod(firstValue(method));
+            default:
+                return HttpMethod.NONE;
+        }
+    }
+
+    @Override
+    public String getPath(AnnotationExpr annotation) {
+        Expression path;
+        if (annotation.isSingleMemberAnnotationExpr()) {
+            path = annotation.asSingleMemberAnnotationExpr().getMemberValue();
+        } else {
+            path = getMember(annotation, "path");
+            if (path == null) {
+                path = getMember(annotation, "value");
+            }
+        }
+
+        if (path == null) {
+            return null;
+        }
+
+        return StringParserUtils.simplifyEndpointURL(StringParserUtils.removeOuterQuotations(firstValue(path).toString()));
+    }
+
+    /**
+     * Find the value of the named member of a normal annotation, null if not present
+     */
+    private static Expression getMember(AnnotationExpr annotation, String name) {
+        if (!annotation.isNormalAnnotationExpr()) {
+            return null;
+        }
+
+        for (MemberValuePair mvp : annotation.asNormalAnnotationExpr().getPairs()) {
+            if (mvp.getNameAsString().equals(name)) {
+                return mvp.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Annotation members may hold several values ({"/a", "/b"}), only the first is used
+     */
+    private static Expression firstValue(Expression value) {
+        if (value instanceof ArrayInitializerExpr && !((ArrayInitializerExpr) value).getValues().isEmpty()) {
+            return ((ArrayInitializerExpr) value).getValues().get(0);
+        }
+
+        return value;
+    }
+
+    /**
+     * Map RequestMethod.X, or X when statically imported, to the HTTP method
+     */
+    private static HttpMethod parseRequestMethod(Expression method) {
+        String name = method.toString();
+        name = name.substring(name.lastIndexOf('.') + 1);
+        for (HttpMethod httpMethod : HttpMethod.values()) {
+            if (httpMethod != HttpMethod.NONE && httpMethod.name().equals(name)) {
+                return httpMethod;
+            }
+        }
+
+        return HttpMethod.NONE;
+    }
+}
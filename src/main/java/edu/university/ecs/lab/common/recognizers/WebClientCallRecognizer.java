@@ -0,0 +1,73 @@
+package edu.university.ecs.lab.common.recognizers;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import edu.university.ecs.lab.common.models.MethodCall;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Recognizes calls made through a Spring WebClient, where the HTTP method is chosen on the
+ * client and the URL is passed further down the chain: webClient.get().uri(url).retrieve()
+ */
+public class WebClientCallRecognizer implements RestCallRecognizer {
+    @Override
+    public Set<String> getObjectNames() {
+        return Set.of("webClient");
+    }
+
+    @Override
+    public String getUrl(MethodCallExpr methodCallExpr, Function<Expression, String> urlResolver) {
+        if (getMethod(methodCallExpr) == null) {
+            return "";
+        }
+
+        // Follow the chain started by this call to the uri(...) call
+        Node node = methodCallExpr;
+        while (node.getParentNode().isPresent() && node.getParentNode().get() instanceof MethodCallExpr) {
+            MethodCallExpr chained = (MethodCallExpr) node.getParentNode().get();
+            if (chained.getScope().orElse(null) != node) {
+                break;
+            }
+
+            if (chained.getNameAsString().equals("uri")) {
+                return chained.getArguments().isEmpty() ? "" : urlResolver.apply(chained.getArgument(0));
+            }
+            node = chained;
+        }
+
+        return "";
+    }
+
+    @Override
+    public HttpMethod getHttpMethod(MethodCallExpr methodCallExpr, MethodCall methodCall) {
+        HttpMethod httpMethod = getMethod(methodCallExpr);
+        return httpMethod == HttpMethod.NONE ? RestTemplateCallRecognizer.findHttpMethod(methodCall.getParameterContents()) : httpMethod;
+    }
+
+    /**
+     * Map the request starting call to its HTTP method, NONE for method(HttpMethod.X) and null
+     * for calls not starting a request
+     */
+    private static HttpMethod getMethod(MethodCallExpr methodCallExpr) {
+        switch (methodCallExpr.getNameAsString()) {
+            case "get":
+                return HttpMethod.GET;
+            case "post":
+                return HttpMethod.POST;
+            case "put":
+                return HttpMethod.PUT;
+            case "delete":
+                return HttpMethod.DELETE;
+            case "patch":
+                return HttpMethod.PATCH;
+            case "method":
+                return HttpMethod.NONE;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Provides the extension point for recognizing endpoints and REST calls of different web frameworks.
+ * <p>
+ * Recognizers are registered as services, listing their class in
+ * META-INF/services/edu.university.ecs.lab.common.recognizers.EndpointRecognizer or
+ * META-INF/services/edu.university.ecs.lab.common.recognizers.RestCallRecognizer, so a jar on the
+ * classpath can add one without changes to the parser.
+ * <p>
+ * This package includes:
+ * - {@link edu.university.ecs.lab.common.recognizers.EndpointRecognizer}: Interface for recognizing
+ *   endpoints by the annotations declaring them.
+ * - {@link edu.university.ecs.lab.common.recognizers.RestCallRecognizer}: Interface for recognizing
+ *   REST calls by the client object they are made on.
+ * - {@link edu.university.ecs.lab.common.recognizers.RecognizerRegistry}: Loads the registered
+ *   recognizers and indexes them by the names they handle.
+ * - {@link edu.university.ecs.lab.common.recognizers.SpringEndpointRecognizer},
+ *   {@link edu.university.ecs.lab.common.recognizers.RestTemplateCallRecognizer} and
+ *   {@link edu.university.ecs.lab.common.recognizers.WebClientCallRecognizer}: The recognizers
+ *   registered by default.
+ */
+package edu.university.ecs.lab.common.recognizers;
@@ -0,0 +1,169 @@
+package edu.university.ecs.lab.common.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.eclipse.jgit.diff.DiffConfig;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A long lived session for diffing many commits of one repository. A single ObjectReader,
+ * RevWalk and TreeWalk are reused for every diff and the root trees of resolved commits are
+ * cached, so diffing adjacent commits of a long history only pays for reading the trees.
+ * Paths rejected by the session's filter are pruned during the tree walk, so unrelated
+ * subtrees are never compared.
+ * <p>
+ * A session is not thread safe, each thread diffing commits should open its own session
+ * with {@link GitService#openDiffSession(boolean)} and close it when done.
+ */
+public class GitDiffSession implements AutoCloseable {
+    /**
+     * Maximum number of commits whose root tree is cached
+     */
+    private static final int TREE_CACHE_SIZE = 1024;
+
+    private final Repository repository;
+    private final ObjectReader reader;
+    private final RevWalk revWalk;
+    private final TreeWalk treeWalk;
+
+    /**
+     * Rename detector reused for every diff, null when rename detection is off
+     */
+    private final RenameDetector renameDetector;
+
+    /**
+     * Root tree of each recently diffed commit, by the revision string it was requested with
+     */
+    private final Map<String, RevTree> trees = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RevTree> eldest) {
+            return size() > TREE_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * The differences between one commit and the next in a range
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CommitDiff {
+        private final String commitOld;
+        private final String commitNew;
+        private final List<DiffEntry> differences;
+    }
+
+    /**
+     * @param repository the repository to diff commits of
+     * @param detectRenames whether renamed and copied files are reported as RENAME and COPY
+     *                      entries instead of a DELETE and an ADD
+     * @param filter the filter selecting the paths to diff, see {@link TreeFilter#ALL}
+     */
+    GitDiffSession(Repository repository, boolean detectRenames, TreeFilter filter) {
+        this.repository = repository;
+        this.reader = repository.newObjectReader();
+        this.revWalk = new RevWalk(reader);
+        this.treeWalk = new TreeWalk(reader);
+        this.treeWalk.setRecursive(true);
+        this.treeWalk.setFilter(filter == TreeFilter.ALL ? TreeFilter.ANY_DIFF : AndTreeFilter.create(filter, TreeFilter.ANY_DIFF));
+        this.renameDetector = detectRenames ? new RenameDetector(reader, repository.getConfig().get(DiffConfig.KEY)) : null;
+    }
+
+    /**
+     * Get the differences between commitOld and commitNew
+     *
+     * @param commitOld the old commit ID
+     * @param commitNew the new commit ID
+     * @return the list of differences as DiffEntrys
+     * @throws IOException if a commit cannot be resolved or read
+     */
+    public List<DiffEntry> diff(String commitOld, String commitNew) throws IOException {
+        treeWalk.reset(getTree(commitOld), getTree(commitNew));
+        List<DiffEntry> differences = DiffEntry.scan(treeWalk);
+
+        if (renameDetector == null) {
+            return differences;
+        }
+
+        renameDetector.reset();
+        renameDetector.addAll(differences);
+        try {
+            return renameDetector.compute(reader, NullProgressMonitor.INSTANCE);
+        } catch (org.eclipse.jgit.api.errors.CanceledException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Lazily diff each pair of consecutive commits, each diff is computed when it is iterated
+     *
+     * @param commits the commits of the range, oldest first
+     * @return an iterator over the differences between commits[i - 1] and commits[i]
+     */
+    public Iterator<CommitDiff> diffRange(List<String> commits) {
+        return new Iterator<>() {
+            private int next = 1;
+
+            @Override
+            public boolean hasNext() {
+                return next < commits.size();
+            }
+
+            @Override
+            public CommitDiff next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                String commitOld = commits.get(next - 1);
+                String commitNew = commits.get(next++);
+                try {
+                    return new CommitDiff(commitOld, commitNew, diff(commitOld, commitNew));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to diff " + commitOld + " and " + commitNew, e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Resolve a commit and get its root tree, answering from the cache when possible
+     */
+    private RevTree getTree(String commitID) throws IOException {
+        RevTree tree = trees.get(commitID);
+        if (tree == null) {
+            ObjectId commitId = repository.resolve(commitID);
+            if (commitId == null) {
+                throw new IOException("Unknown commit " + commitID);
+            }
+
+            tree = revWalk.parseCommit(commitId).getTree();
+            trees.put(commitID, tree);
+        }
+
+        return tree;
+    }
+
+    @Override
+    public void close() {
+        treeWalk.close();
+        revWalk.close();
+        reader.close();
+    }
+}
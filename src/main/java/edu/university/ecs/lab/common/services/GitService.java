@@ -4,26 +4,37 @@ import edu.university.ecs.lab.common.config.Config;
 import edu.university.ecs.lab.common.config.ConfigUtil;
 import edu.university.ecs.lab.common.error.Error;
 import edu.university.ecs.lab.common.utils.FileUtils;
+import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Service for managing local repository including the cloning
  * and resetting the current commit.
  */
 public class GitService {
-    private static final int EXIT_SUCCESS = 0;
     private static final String HEAD_COMMIT = "HEAD";
 
 
@@ -38,29 +49,41 @@ public class GitService {
     private final Repository repository;
 
     public GitService(String configPath) {
-        this.config = ConfigUtil.readConfig(configPath);
-        cloneRemote();
-
-        // If clone was successful we can now set repo and reset local repo to config base commit
-        this.repository = initRepository();
-        resetLocal(config.getBaseCommit());
-
+        this(ConfigUtil.readConfig(configPath));
     }
 
     // TODO REMOVE THIS IS FOR TESTING ONLY
     public GitService(Config config) {
+        this(config, true);
+    }
+
+    /**
+     * @param config the configuration object
+     * @param resetToBase whether to reset the working tree to the config base commit, pass
+     *                    false when files are only read from the object database
+     */
+    public GitService(Config config, boolean resetToBase) {
         this.config = config;
+        boolean cloned = new File(FileUtils.getClonePath(config.getRepoName())).exists();
         cloneRemote();
+        if (cloned && config.isFetchOnStart() && !fetch()) {
+            System.out.println("Unable to fetch \"" + config.getRepositoryURL() + "\", using the existing clone");
+        }
 
         // If clone was successful we can now set repo and reset local repo to config base commit
         this.repository = initRepository();
-        resetLocal(config.getBaseCommit());
+        if (resetToBase) {
+            resetLocal(config.getBaseCommit());
+        }
 
     }
 
     /**
-     * This method clones a remote repository to the local file system. Postcondition: the repository
-     * has been cloned to the local file system.
+     * This method clones a remote repository to the local file system in process. The clone is
+     * limited to the configured depth and to the base branch when single branch is configured.
+     * The repository URL may also be a local (bare) repository path or a file:// URL. If a clone
+     * already exists it is used as it is, see {@link #fetch()} to update it. Postcondition: the
+     * repository has been cloned to the local file system.
      *
      */
     public void cloneRemote() {
@@ -71,22 +94,61 @@ public class GitService {
             return;
         }
 
+        CloneCommand cloneCommand = Git.cloneRepository()
+                .setURI(config.getRepositoryURL())
+                .setDirectory(file);
+
+        if (config.getCloneDepth() > 0) {
+            cloneCommand.setDepth(config.getCloneDepth());
+        }
+        if (config.isSingleBranch() && !Objects.isNull(config.getBaseBranch()) && !config.getBaseBranch().isEmpty()) {
+            cloneCommand.setBranch(config.getBaseBranch())
+                    .setBranchesToClone(List.of(Constants.R_HEADS + config.getBaseBranch()));
+        }
+
         try {
-            ProcessBuilder processBuilder =
-                    new ProcessBuilder("git", "clone", config.getRepositoryURL(), FileUtils.getClonePath(config.getRepoName()));
-            processBuilder.redirectErrorStream(true);
-            Process process = processBuilder.start();
+            cloneCommand.call().close();
+            System.out.println("Successfully cloned \"" + config.getRepositoryURL() + "\"");
+        } catch (Exception e) {
+            // Do not leave a partial clone behind, it would be mistaken for a complete one
+            deleteRecursively(file);
+            Error.reportAndExit(Error.GIT_FAILED);
+        }
+    }
 
-            int exitCode = process.waitFor();
+    /**
+     * Delete a directory and its contents, ignoring files that cannot be deleted
+     */
+    private static void deleteRecursively(File directory) {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            // Nothing was cloned
+        }
+    }
 
+    /**
+     * This method fetches new commits of the remote into its remote tracking branches, keeping
+     * the configured depth. Local branches, the index and the working tree are not touched, so
+     * the analyzed commit only changes through {@link #resetLocal(String)}, e.g. to a base commit
+     * of "origin/main".
+     *
+     * @return boolean indicating success
+     */
+    public boolean fetch() {
+        File localRepoDir = new File(FileUtils.getClonePath(config.getRepoName()));
 
-            if (exitCode != EXIT_SUCCESS) {
-                throw new Exception();
+        try (Git git = Git.open(localRepoDir)) {
+            FetchCommand fetchCommand = git.fetch().setRemoveDeletedRefs(true);
+            if (config.getCloneDepth() > 0) {
+                fetchCommand.setDepth(config.getCloneDepth());
             }
-
+            fetchCommand.call();
         } catch (Exception e) {
-            Error.reportAndExit(Error.GIT_FAILED);
+            return false;
         }
+
+        return true;
     }
 
     /**
@@ -172,33 +234,119 @@ public class GitService {
      * @throws Exception
      */
     public List<DiffEntry> getDifferences(String commitOld, String commitNew) throws Exception {
+        return getDifferences(commitOld, commitNew, TreeFilter.ALL);
+    }
+
+    /**
+     * Get the differences between commitOld and commitNew of the paths accepted by filter
+     *
+     * @param commitOld the old commit ID
+     * @param commitNew the new commit ID
+     * @param filter the filter selecting the paths to diff, see {@link TreeFilter#ALL}
+     * @return the list of differences as DiffEntrys
+     * @throws Exception
+     */
+    public List<DiffEntry> getDifferences(String commitOld, String commitNew, TreeFilter filter) throws Exception {
         List<DiffEntry> returnList = null;
 
-        RevWalk revWalk = new RevWalk(repository);
-//    String relativeHead = HEAD_COMMIT + "~" + relativeIndex;
-        RevCommit oldCommit = revWalk.parseCommit(repository.resolve(commitOld));
-        RevCommit newCommit = revWalk.parseCommit(repository.resolve(commitNew));
+        try (GitDiffSession diffSession = openDiffSession(false, filter)) {
+            returnList = diffSession.diff(commitOld, commitNew);
+        } catch (Exception e) {
+            Error.reportAndExit(Error.GIT_FAILED);
+        }
 
-        // Prepare tree parsers for both commits
-        try (ObjectReader reader = repository.newObjectReader()) {
-            CanonicalTreeParser oldTreeParser = new CanonicalTreeParser();
-            CanonicalTreeParser newTreeParser = new CanonicalTreeParser();
-            oldTreeParser.reset(reader, oldCommit.getTree());
-            newTreeParser.reset(reader, newCommit.getTree());
-
-            // Compute differences
-            try (Git git = new Git(repository)) {
-                returnList = git.diff()
-                        .setNewTree(newTreeParser)
-                        .setOldTree(oldTreeParser)
-                        .call();
+        return returnList;
+    }
 
+    /**
+     * Open a session reusing one reader and walk for diffing many commits, prefer
+     * it over {@link #getDifferences(String, String)} when diffing a long history
+     *
+     * @param detectRenames whether renamed and copied files are reported as RENAME and COPY entries
+     * @return the diff session, to be closed by the caller
+     */
+    public GitDiffSession openDiffSession(boolean detectRenames) {
+        return openDiffSession(detectRenames, TreeFilter.ALL);
+    }
+
+    /**
+     * Open a session reusing one reader and walk for diffing the paths accepted by filter
+     *
+     * @param detectRenames whether renamed and copied files are reported as RENAME and COPY entries
+     * @param filter the filter selecting the paths to diff, see {@link TreeFilter#ALL}
+     * @return the diff session, to be closed by the caller
+     */
+    public GitDiffSession openDiffSession(boolean detectRenames, TreeFilter filter) {
+        validateLocalExists();
+        return new GitDiffSession(repository, detectRenames, filter);
+    }
+
+    /**
+     * Walk the tree of a commit and collect the files accepted by filter. The
+     * working tree is not touched so any number of commits can be read at once.
+     *
+     * @param commitID the commit whose tree is walked
+     * @param filter the filter selecting files, see {@link TreeFilter#ALL}
+     * @return map of git path (no leading separator) to blob id in tree order
+     */
+    public Map<String, ObjectId> getTreeFiles(String commitID, TreeFilter filter) {
+        Map<String, ObjectId> files = new LinkedHashMap<>();
+
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            RevCommit commit = revWalk.parseCommit(repository.resolve(commitID));
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(filter);
+
+            while (treeWalk.next()) {
+                files.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
             }
         } catch (Exception e) {
             Error.reportAndExit(Error.GIT_FAILED);
         }
 
-        return returnList;
+        return files;
+    }
+
+    /**
+     * Resolve a revision (e.g. HEAD, a branch or an abbreviated id) to a full commit id
+     *
+     * @param revision the revision to resolve
+     * @return the full id of the commit
+     */
+    public String resolveCommit(String revision) {
+        String commitID = null;
+
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            ObjectId objectId = repository.resolve(revision);
+            if (objectId == null) {
+                Error.reportAndExit(Error.INVALID_ARGS);
+            }
+            commitID = revWalk.parseCommit(objectId).getName();
+        } catch (IOException e) {
+            Error.reportAndExit(Error.GIT_FAILED);
+        }
+
+        return commitID;
+    }
+
+    /**
+     * Read the contents of a blob from the object database
+     *
+     * @param blobId the id of the blob
+     * @return the raw contents of the blob
+     */
+    public byte[] readBlob(ObjectId blobId) {
+        byte[] content = null;
+
+        try (ObjectReader reader = repository.newObjectReader()) {
+            content = reader.open(blobId, Constants.OBJ_BLOB).getBytes();
+        } catch (Exception e) {
+            Error.reportAndExit(Error.GIT_FAILED);
+        }
+
+        return content;
     }
 
     public Iterable<RevCommit> getLog() {
@@ -0,0 +1,256 @@
+package edu.university.ecs.lab.common.services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.models.JClass;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Persistent, content addressed cache of parsed {@link JClass} results. Entries are keyed
+ * by the git blob id of the source file, the repository path of the file (the JClass records
+ * its path and microservice) and {@link #EXTRACTOR_VERSION}. The cache directory is bounded
+ * in size and evicts least recently used entries first.
+ */
+public class ParseCacheService {
+    /**
+     * Version of the extraction logic, must be bumped whenever the same source
+     * would be parsed into a different JClass so stale entries are never hit
+     */
+    public static final String EXTRACTOR_VERSION = "3";
+
+    /**
+     * Default upper bound on the total size of cached entries
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String VERSION_KEY = "version";
+    private static final String CLASS_KEY = "jClass";
+
+    /**
+     * Directory holding one file per cache entry
+     */
+    private final File cacheDirectory;
+
+    /**
+     * Maximum total size of the entries in bytes
+     */
+    private final long maxBytes;
+
+    /**
+     * Entry key to entry size, in least to most recently used order
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Current total size of the entries in bytes
+     */
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final Gson gson = new Gson();
+
+    /**
+     * @param cacheDirectory directory to keep cache entries in, created if absent
+     */
+    public ParseCacheService(String cacheDirectory) {
+        this(cacheDirectory, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param cacheDirectory directory to keep cache entries in, created if absent
+     * @param maxBytes maximum total size of the entries in bytes
+     */
+    public ParseCacheService(String cacheDirectory, long maxBytes) {
+        this.cacheDirectory = new File(cacheDirectory);
+        this.maxBytes = maxBytes;
+
+        if (!this.cacheDirectory.isDirectory() && !this.cacheDirectory.mkdirs()) {
+            Error.reportAndExit(Error.INVALID_REPO_PATHS);
+        }
+
+        loadEntries();
+    }
+
+    /**
+     * This method computes the git blob object id of file contents,
+     * identical to the id git assigns to the same bytes
+     *
+     * @param content the raw file contents
+     * @return the hex blob id
+     */
+    public static String blobId(byte[] content) {
+        try (ObjectInserter.Formatter formatter = new ObjectInserter.Formatter()) {
+            return formatter.idFor(Constants.OBJ_BLOB, content).name();
+        }
+    }
+
+    /**
+     * This method returns the cached parse result for a blob or parses and caches it.
+     * Files that do not parse to a JClass (null) are cached as well.
+     *
+     * @param blobId the git blob id of the source
+     * @param path the repository path of the source file
+     * @param parser parses the source on a cache miss
+     * @return the cached or freshly parsed JClass, may be null
+     */
+    public JClass computeIfAbsent(String blobId, String path, Supplier<JClass> parser) {
+        String key = entryKey(blobId, path);
+        JsonObject cached = readEntry(key);
+
+        if (cached != null) {
+            hits.incrementAndGet();
+            JsonElement jClassJson = cached.get(CLASS_KEY);
+            return jClassJson == null || jClassJson.isJsonNull() ? null : JsonReadWriteUtils.fromJsonElement(jClassJson, JClass.class);
+        }
+
+        misses.incrementAndGet();
+        JClass jClass = parser.get();
+        writeEntry(key, jClass);
+
+        return jClass;
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups that had to parse
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return a printable summary of the cache counters
+     */
+    public String getStatistics() {
+        return "Parse cache: " + getHits() + " hits, " + getMisses() + " misses";
+    }
+
+    /**
+     * Generate the key of an entry from the blob id, path and extractor version
+     */
+    private static String entryKey(String blobId, String path) {
+        MessageDigest digest = Constants.newMessageDigest();
+        digest.update((EXTRACTOR_VERSION + "\0" + blobId + "\0" + path).getBytes(StandardCharsets.UTF_8));
+        return ObjectId.fromRaw(digest.digest()).name();
+    }
+
+    /**
+     * Read an entry from disk, marking it as most recently used
+     *
+     * @return the entry or null if it is absent or unreadable
+     */
+    private JsonObject readEntry(String key) {
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+
+        File entryFile = getEntryFile(key);
+        try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(entryFile), StandardCharsets.UTF_8))) {
+            JsonObject jsonObject = JsonParser.parseReader(reader).getAsJsonObject();
+            if (!jsonObject.has(VERSION_KEY) || !EXTRACTOR_VERSION.equals(jsonObject.get(VERSION_KEY).getAsString())) {
+                return null;
+            }
+
+            // Persist recency so the LRU order survives between runs
+            entryFile.setLastModified(System.currentTimeMillis());
+            return jsonObject;
+        } catch (Exception e) {
+            // Evicted concurrently or corrupt, treat as a miss
+            return null;
+        }
+    }
+
+    /**
+     * Write an entry to disk atomically and evict old entries if the cache grew too large
+     */
+    private void writeEntry(String key, JClass jClass) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty(VERSION_KEY, EXTRACTOR_VERSION);
+        jsonObject.add(CLASS_KEY, jClass == null ? JsonNull.INSTANCE : jClass.toJsonObject());
+        byte[] content = gson.toJson(jsonObject).getBytes(StandardCharsets.UTF_8);
+
+        File entryFile = getEntryFile(key);
+        try {
+            File tempFile = File.createTempFile(key, TEMP_EXTENSION, cacheDirectory);
+            Files.write(tempFile.toPath(), content);
+            Files.move(tempFile.toPath(), entryFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The cache is an optimization only, skip the entry
+            return;
+        }
+
+        synchronized (entries) {
+            Long previous = entries.put(key, (long) content.length);
+            totalBytes += content.length - (previous == null ? 0 : previous);
+            evict();
+        }
+    }
+
+    /**
+     * Remove least recently used entries until the cache fits in maxBytes
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            getEntryFile(eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Index the entries already present in the cache directory, oldest first
+     */
+    private void loadEntries() {
+        File[] files = cacheDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_EXTENSION)) {
+                // Left behind by an interrupted write
+                file.delete();
+            } else if (file.getName().endsWith(ENTRY_EXTENSION)) {
+                entries.put(file.getName().replace(ENTRY_EXTENSION, ""), file.length());
+                totalBytes += file.length();
+            }
+        }
+
+        evict();
+    }
+
+    private File getEntryFile(String key) {
+        return new File(cacheDirectory, key + ENTRY_EXTENSION);
+    }
+}
@@ -13,6 +13,8 @@ public class FileUtils {
     public static final String SEPARATOR_SPECIAL = SEPARATOR.replace("\\", "\\\\");
     private static final String DEFAULT_OUTPUT_PATH = "output";
     private static final String DEFAULT_CLONE_PATH = "clone";
+    private static final String DEFAULT_CACHE_PATH = "cache";
+    private static final String DEFAULT_CHECKPOINT_PATH = "checkpoints";
     private static final String DOT = ".";
     public static final String GIT_SEPARATOR = "/";
 
@@ -62,6 +64,37 @@ public class FileUtils {
         return DOT + SEPARATOR + DEFAULT_CLONE_PATH;
     }
 
+    /**
+     * This method returns the relative local path of the parse cache directory as ./DEFAULT_CACHE_PATH.
+     * This will be a working relative path to the cache directory on the local file system.
+     *
+     * @return the relative path string where parsed classes are cached
+     */
+    public static String getBaseCachePath() {
+        return DOT + SEPARATOR + DEFAULT_CACHE_PATH;
+    }
+
+    /**
+     * This method returns the relative local path of the checkpoint directory as ./DEFAULT_CHECKPOINT_PATH.
+     * This will be a working relative path to the checkpoint directory on the local file system.
+     *
+     * @return the relative path string where history checkpoints are kept
+     */
+    public static String getBaseCheckpointPath() {
+        return DOT + SEPARATOR + DEFAULT_CHECKPOINT_PATH;
+    }
+
+    /**
+     * This method returns the relative local path of the checkpoint directory of a repository as
+     * ./DEFAULT_CHECKPOINT_PATH/repoName, so histories of different repositories never share checkpoints.
+     *
+     * @param repoName the name of the repo
+     * @return the relative path string where the history checkpoints of the repository are kept
+     */
+    public static String getCheckpointPath(String repoName) {
+        return getBaseCheckpointPath() + SEPARATOR + repoName;
+    }
+
     /**
      * This method converts a path of the form .\clone\repoName\pathToFile to the form
      * /pathToFile
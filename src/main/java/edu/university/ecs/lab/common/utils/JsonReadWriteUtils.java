@@ -2,13 +2,22 @@ package edu.university.ecs.lab.common.utils;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
 import edu.university.ecs.lab.common.error.Error;
 import edu.university.ecs.lab.common.models.Method;
 import edu.university.ecs.lab.common.models.MethodCall;
-import edu.university.ecs.lab.common.models.serialization.MethodCallDeserializer;
-import edu.university.ecs.lab.common.models.serialization.MethodDeserializer;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.serialization.MethodCallTypeAdapter;
+import edu.university.ecs.lab.common.models.serialization.MethodTypeAdapter;
+import edu.university.ecs.lab.common.models.serialization.StreamingJsonWriter;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Utility class for reading and writing JSON to a file.
@@ -38,6 +47,24 @@ public class JsonReadWriteUtils {
         }
     }
 
+    /**
+     * Writes a microservice system to a JSON file at a specified path. The system is streamed
+     * class by class through a buffered file channel instead of being converted to a JsonObject
+     * first, so memory use grows with the largest class rather than with the whole system.
+     *
+     * @param filePath           the file path where the JSON should be saved
+     * @param microserviceSystem the system to serialize into JSON
+     * @param prettyPrint        whether to indent the output or write it compactly
+     */
+    public static void writeToJSON(String filePath, MicroserviceSystem microserviceSystem, boolean prettyPrint) {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             JsonWriter writer = new JsonWriter(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8)))) {
+            new StreamingJsonWriter(writer, prettyPrint).write(microserviceSystem);
+        } catch (IOException e) {
+            Error.reportAndExit(Error.INVALID_JSON_WRITE);
+        }
+    }
+
     /**
      * Reads a JSON file from a given path and converts it into an object of the specified type.
      *
@@ -60,14 +87,27 @@ public class JsonReadWriteUtils {
     }
 
     /**
-     * Function for register custom deserializers when reading JSON from a file
-     * @return
+     * Converts an already parsed JSON element into an object of the specified type
+     * using the same custom deserializers as {@link #readFromJSON(String, Class)}.
+     *
+     * @param <T>      the type of the object to return
+     * @param json     the JSON element to convert
+     * @param type     the Class representing the type of the object to deserialize
+     * @return an object of type T containing the data from the JSON element
+     */
+    public static <T> T fromJsonElement(JsonElement json, Class<T> type) {
+        return registerDeserializers().fromJson(json, type);
+    }
+
+    /**
+     * Function for register custom type adapters when reading JSON from a file
+     * @return a Gson instance with the streaming Method and MethodCall adapters registered
      */
     private static Gson registerDeserializers() {
 
         return new GsonBuilder()
-                .registerTypeAdapter(Method.class, new MethodDeserializer())
-                .registerTypeAdapter(MethodCall.class, new MethodCallDeserializer())
+                .registerTypeAdapter(Method.class, new MethodTypeAdapter().nullSafe())
+                .registerTypeAdapter(MethodCall.class, new MethodCallTypeAdapter().nullSafe())
                 .create();
     }
 }
@@ -0,0 +1,159 @@
+package edu.university.ecs.lab.common.utils;
+
+import edu.university.ecs.lab.common.config.Config;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.OrTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A tree filter selecting files by include and exclude globs over "/" separated paths relative
+ * to the repository root, e.g. "ts-*-service/src/main/**" or "frontend/**". A file is selected
+ * when it matches any include (or there are none) and no exclude. Directories are pruned as soon
+ * as no include can match below them or an exclude of the form "dir/**" matches them, so skipped
+ * subtrees are never walked.
+ */
+public class PathGlobFilter extends TreeFilter {
+    private static final String ANY_DIRECTORIES = "**";
+    private static final String ANY_DIRECTORIES_SUFFIX = FileUtils.GIT_SEPARATOR + ANY_DIRECTORIES;
+
+    /**
+     * The files the IR is built from, java sources and build files
+     */
+    private static final TreeFilter SOURCE_FILES = OrTreeFilter.create(PathSuffixFilter.create(".java"), PathSuffixFilter.create("pom.xml"));
+
+    private final List<Glob> includes = new ArrayList<>();
+    private final List<Glob> excludes = new ArrayList<>();
+
+    /**
+     * A glob compiled as a whole and segment by segment
+     */
+    private static class Glob {
+        private final PathMatcher matcher;
+        private final String[] segments;
+        private final PathMatcher[] segmentMatchers;
+
+        /**
+         * Matcher of the glob without a trailing "/**", matching the directories it covers entirely
+         */
+        private final PathMatcher directoryMatcher;
+
+        private Glob(String pattern) {
+            matcher = compile(pattern);
+            segments = pattern.split(FileUtils.GIT_SEPARATOR);
+            segmentMatchers = new PathMatcher[segments.length];
+            for (int i = 0; i < segments.length; i++) {
+                segmentMatchers[i] = compile(segments[i]);
+            }
+            directoryMatcher = pattern.endsWith(ANY_DIRECTORIES_SUFFIX)
+                    ? compile(pattern.substring(0, pattern.length() - ANY_DIRECTORIES_SUFFIX.length()))
+                    : null;
+        }
+
+        /**
+         * @return whether some file below the directory may match the glob
+         */
+        private boolean mayMatchBelow(String[] directorySegments) {
+            for (int i = 0; i < directorySegments.length; i++) {
+                if (segments[i].equals(ANY_DIRECTORIES)) {
+                    return true;
+                }
+                // The last segment names files, the directory itself cannot satisfy it
+                if (i == segments.length - 1 || !segmentMatchers[i].matches(Path.of(directorySegments[i]))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private static PathMatcher compile(String pattern) {
+            return FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        }
+    }
+
+    /**
+     * @param includes globs of the files to select, null or empty selects all files
+     * @param excludes globs of the files to skip, may be null
+     */
+    public PathGlobFilter(List<String> includes, List<String> excludes) {
+        if (includes != null) {
+            includes.stream().map(Glob::new).forEach(this.includes::add);
+        }
+        if (excludes != null) {
+            excludes.stream().map(Glob::new).forEach(this.excludes::add);
+        }
+    }
+
+    /**
+     * Create the filter selecting the java and pom.xml files of the configured include and exclude paths
+     *
+     * @param config the configuration object
+     * @return a filter to walk trees or diff commits with
+     */
+    public static TreeFilter createSourceFilter(Config config) {
+        if (isEmpty(config.getIncludePaths()) && isEmpty(config.getExcludePaths())) {
+            return SOURCE_FILES;
+        }
+
+        return AndTreeFilter.create(SOURCE_FILES, new PathGlobFilter(config.getIncludePaths(), config.getExcludePaths()));
+    }
+
+    /**
+     * @param path the path of a file relative to the repository root
+     * @return whether the file is selected
+     */
+    public boolean includesFile(String path) {
+        Path filePath = Path.of(path);
+        if (!includes.isEmpty() && includes.stream().noneMatch(glob -> glob.matcher.matches(filePath))) {
+            return false;
+        }
+
+        return excludes.stream().noneMatch(glob -> glob.matcher.matches(filePath));
+    }
+
+    /**
+     * @param path the path of a directory relative to the repository root
+     * @return whether any file below the directory may be selected
+     */
+    public boolean includesDirectory(String path) {
+        Path directoryPath = Path.of(path);
+        for (Glob glob : excludes) {
+            if (glob.matcher.matches(directoryPath) || (glob.directoryMatcher != null && glob.directoryMatcher.matches(directoryPath))) {
+                return false;
+            }
+        }
+
+        String[] directorySegments = path.split(FileUtils.GIT_SEPARATOR);
+        return includes.isEmpty() || includes.stream().anyMatch(glob -> glob.mayMatchBelow(directorySegments));
+    }
+
+    @Override
+    public boolean include(TreeWalk walker) {
+        String path = walker.getPathString();
+        return walker.isSubtree() ? includesDirectory(path) : includesFile(path);
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+        return true;
+    }
+
+    @Override
+    public TreeFilter clone() {
+        // Immutable, safe to share between walks
+        return this;
+    }
+
+    private static boolean isEmpty(List<String> paths) {
+        return Objects.isNull(paths) || paths.isEmpty();
+    }
+}
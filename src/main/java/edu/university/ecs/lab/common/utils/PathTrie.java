@@ -0,0 +1,115 @@
+package edu.university.ecs.lab.common.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A trie over "/" separated paths mapping folder paths to values. Lookups walk the segments of a
+ * path once, so finding the value stored for the deepest folder containing a file costs
+ * O(path length) regardless of how many paths are stored.
+ *
+ * @param <V> the type of the stored values
+ */
+public class PathTrie<V> {
+    private final Node<V> root = new Node<>();
+
+    private static class Node<V> {
+        private final Map<String, Node<V>> children = new HashMap<>();
+        private V value;
+    }
+
+    /**
+     * Store a value for a path, replacing any previous value
+     *
+     * @param path the path to store
+     * @param value the value for the path
+     */
+    public void put(String path, V value) {
+        Node<V> node = root;
+        int start = 0;
+        while (start < path.length()) {
+            int end = segmentEnd(path, start);
+            if (end > start) {
+                node = node.children.computeIfAbsent(path.substring(start, end), k -> new Node<>());
+            }
+            start = end + 1;
+        }
+
+        node.value = value;
+    }
+
+    /**
+     * Remove the value stored for a path
+     *
+     * @param path the path to remove
+     * @return the removed value or null if no value was stored for the path
+     */
+    public V remove(String path) {
+        Node<V> node = find(path, false);
+        if (node == null) {
+            return null;
+        }
+
+        V value = node.value;
+        node.value = null;
+
+        return value;
+    }
+
+    /**
+     * @param path the path to search for
+     * @return the value stored for exactly this path or null
+     */
+    public V get(String path) {
+        Node<V> node = find(path, false);
+
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Find the value stored for the longest path that is a prefix of the given path,
+     * comparing whole segments
+     *
+     * @param path the path to search for
+     * @return the value of the deepest stored prefix or null if no prefix is stored
+     */
+    public V findLongestPrefix(String path) {
+        Node<V> node = find(path, true);
+
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Walk the segments of the path
+     *
+     * @param path the path to walk
+     * @param longestPrefix whether to return the deepest node holding a value instead of the exact node
+     * @return the node found or null
+     */
+    private Node<V> find(String path, boolean longestPrefix) {
+        Node<V> node = root;
+        Node<V> deepest = root.value != null ? root : null;
+        int start = 0;
+        while (start < path.length()) {
+            int end = segmentEnd(path, start);
+            if (end > start) {
+                node = node.children.get(path.substring(start, end));
+                if (node == null) {
+                    return longestPrefix ? deepest : null;
+                }
+                if (node.value != null) {
+                    deepest = node;
+                }
+            }
+            start = end + 1;
+        }
+
+        return longestPrefix ? deepest : node;
+    }
+
+    private static int segmentEnd(String path, int start) {
+        int end = path.indexOf(FileUtils.GIT_SEPARATOR, start);
+
+        return end == -1 ? path.length() : end;
+    }
+}
@@ -0,0 +1,149 @@
+package edu.university.ecs.lab.common.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A token level scanner over the raw bytes of a Java source deciding whether it may declare one
+ * of the class role annotations (@RestController, @Service, @Repository or @Entity). Comments and
+ * string, character and text block literals are skipped, so a role name mentioned in them does not
+ * count. Sources without a role annotation are never parsed into a class, so they can be skipped
+ * before paying for a full parse.
+ * <p>
+ * The scanner errs on the side of parsing: an annotation anywhere in the source counts, not only
+ * on the class, and unicode escapes outside literals make any source a candidate.
+ */
+public final class RoleAnnotationScanner {
+    private static final byte[][] ROLE_ANNOTATIONS = {
+            "RestController".getBytes(StandardCharsets.US_ASCII),
+            "Service".getBytes(StandardCharsets.US_ASCII),
+            "Repository".getBytes(StandardCharsets.US_ASCII),
+            "Entity".getBytes(StandardCharsets.US_ASCII)
+    };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private RoleAnnotationScanner() {
+    }
+
+    /**
+     * @param source the UTF-8 encoded source
+     * @param length the number of bytes of source to scan
+     * @return false if the source certainly declares no role annotation
+     */
+    public static boolean mayDeclareRole(byte[] source, int length) {
+        int i = 0;
+        while (i < length) {
+            byte b = source[i];
+            if (b == '/' && i + 1 < length && source[i + 1] == '/') {
+                i = skipLineComment(source, length, i + 2);
+            } else if (b == '/' && i + 1 < length && source[i + 1] == '*') {
+                i = skipBlockComment(source, length, i + 2);
+            } else if (b == '"') {
+                i = isTextBlock(source, length, i) ? skipTextBlock(source, length, i + 3) : skipLiteral(source, length, i + 1, (byte) '"');
+            } else if (b == '\'') {
+                i = skipLiteral(source, length, i + 1, (byte) '\'');
+            } else if (b == '\\' && i + 1 < length && source[i + 1] == 'u') {
+                // An escaped character may spell an annotation, let the parser decide
+                return true;
+            } else if (b == '@') {
+                int start = skipWhitespaceAndComments(source, length, i + 1);
+                int end = start;
+                while (end < length && isIdentifierPart(source[end])) {
+                    end++;
+                }
+                if (isRoleAnnotation(source, start, end)) {
+                    return true;
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isRoleAnnotation(byte[] source, int start, int end) {
+        for (byte[] name : ROLE_ANNOTATIONS) {
+            if (end - start == name.length && regionMatches(source, start, name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean regionMatches(byte[] source, int start, byte[] name) {
+        for (int i = 0; i < name.length; i++) {
+            if (source[start + i] != name[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Bytes of multi-byte UTF-8 characters are treated as identifier parts, so a role name
+     * followed by a non ASCII letter is not mistaken for the role
+     */
+    private static boolean isIdentifierPart(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_' || b == '$' || b < 0;
+    }
+
+    private static int skipWhitespaceAndComments(byte[] source, int length, int i) {
+        while (i < length) {
+            if (source[i] == ' ' || source[i] == '\t' || source[i] == '\n' || source[i] == '\r' || source[i] == '\f') {
+                i++;
+            } else if (source[i] == '/' && i + 1 < length && source[i + 1] == '/') {
+                i = skipLineComment(source, length, i + 2);
+            } else if (source[i] == '/' && i + 1 < length && source[i + 1] == '*') {
+                i = skipBlockComment(source, length, i + 2);
+            } else {
+                break;
+            }
+        }
+
+        return i;
+    }
+
+    private static int skipLineComment(byte[] source, int length, int i) {
+        while (i < length && source[i] != '\n' && source[i] != '\r') {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static int skipBlockComment(byte[] source, int length, int i) {
+        while (i + 1 < length && !(source[i] == '*' && source[i + 1] == '/')) {
+            i++;
+        }
+
+        return i + 2;
+    }
+
+    /**
+     * Skip a string or character literal, which ends at its unescaped quote or the end of the line
+     */
+    private static int skipLiteral(byte[] source, int length, int i, byte quote) {
+        while (i < length && source[i] != quote && source[i] != '\n') {
+            i += source[i] == '\\' ? 2 : 1;
+        }
+
+        return i + 1;
+    }
+
+    private static boolean isTextBlock(byte[] source, int length, int i) {
+        return i + 2 < length && source[i + 1] == '"' && source[i + 2] == '"';
+    }
+
+    private static int skipTextBlock(byte[] source, int length, int i) {
+        while (i + 2 < length && !(source[i] == '"' && source[i + 1] == '"' && source[i + 2] == '"')) {
+            i += source[i] == '\\' ? 2 : 1;
+        }
+
+        return i + 3;
+    }
+}
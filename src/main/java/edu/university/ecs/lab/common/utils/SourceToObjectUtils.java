@@ -1,48 +1,80 @@
 package edu.university.ecs.lab.common.utils;
 
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.Node;
-import com.github.javaparser.ast.PackageDeclaration;
 import com.github.javaparser.ast.body.*;
 import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.nodeTypes.NodeWithSimpleName;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import edu.university.ecs.lab.common.config.Config;
 import edu.university.ecs.lab.common.error.Error;
 import edu.university.ecs.lab.common.models.*;
 import edu.university.ecs.lab.common.models.enums.ClassRole;
 import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.recognizers.RecognizerRegistry;
+import edu.university.ecs.lab.common.recognizers.RestCallRecognizer;
 import edu.university.ecs.lab.intermediate.utils.StringParserUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
- * Static utility class for parsing a file and returning associated models from code structure.
+ * Utility class for parsing a file and returning associated models from code structure.
+ * Each call to {@link #parseClass(File, Config)} works on its own per-file parsing context,
+ * so files may be parsed concurrently from several threads.
  */
 public class SourceToObjectUtils {
-    private static CompilationUnit cu;
-    private static String microserviceName;
-    private static String packageName;
-    private static String packageAndClassName;
+    /**
+     * One reusable parser per thread, a JavaParser instance must not be shared between threads
+     */
+    private static final ThreadLocal<JavaParser> PARSER = ThreadLocal.withInitial(JavaParser::new);
 
+    /**
+     * One reusable read buffer per thread, grown to the largest file read so far
+     */
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
 
-    private static void generateStaticValues(File sourceFile) {
-        // Parse the highest level node being compilation unit
-        try {
-            cu = StaticJavaParser.parse(sourceFile);
-        } catch (FileNotFoundException e) {
-            Error.reportAndExit(Error.JPARSE_FAILED);
-        }
+    /**
+     * Number of sources pre-scanned and number of those skipped as they declare no class role
+     */
+    private static final AtomicLong SCANNED = new AtomicLong();
+    private static final AtomicLong SKIPPED = new AtomicLong();
+
+    /**
+     * The endpoint and REST call recognizers registered on the classpath
+     */
+    private static final RecognizerRegistry RECOGNIZERS = RecognizerRegistry.load();
+
+    private final DeclarationCollector declarations;
+    private final String microserviceName;
+    private final String packageName;
+    private final String packageAndClassName;
+
+    /**
+     * Set up the per-file parsing context
+     *
+     * @param sourceFile the file parsed
+     * @param cu the compilation unit of the file
+     */
+    private SourceToObjectUtils(File sourceFile, CompilationUnit cu) {
+        declarations = new DeclarationCollector();
+        cu.accept(declarations, null);
         microserviceName = getMicroserviceName(sourceFile);
-        if(!cu.findAll(PackageDeclaration.class).isEmpty()) {
-            packageName = cu.findAll(PackageDeclaration.class).get(0).getNameAsString();
+        if(cu.getPackageDeclaration().isPresent()) {
+            packageName = cu.getPackageDeclaration().get().getNameAsString();
             packageAndClassName = packageName + "." + sourceFile.getName().replace(".java", "");
+        } else {
+            packageName = null;
+            packageAndClassName = null;
         }
 
     }
@@ -54,20 +86,92 @@ public class SourceToObjectUtils {
      * @return the JClass object representing the file
      */
     public static JClass parseClass(File sourceFile, Config config) {
-        generateStaticValues(sourceFile);
+        byte[] buffer = BUFFER.get();
+        int length = 0;
+
+        // Read into the thread's buffer, the pre-scan and the parser share the same bytes
+        try (FileChannel channel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > buffer.length) {
+                buffer = new byte[(int) channel.size()];
+                BUFFER.set(buffer);
+            }
+
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            int read;
+            do {
+                read = channel.read(byteBuffer);
+            } while (read > 0 && byteBuffer.hasRemaining());
+            length = byteBuffer.position();
+        } catch (IOException e) {
+            Error.reportAndExit(Error.JPARSE_FAILED);
+        }
+
+        return parseClass(sourceFile, buffer, length, config);
+    }
+
+    /**
+     * This method parses Java source that is already in memory and return a JClass object.
+     * The file does not need to exist locally, its path is only used to name the class and
+     * find its microservice (e.g. the local path a blob would be checked out to).
+     *
+     * @param sourceFile the local path of the source
+     * @param source the raw source contents
+     * @return the JClass object representing the source
+     */
+    public static JClass parseClass(File sourceFile, byte[] source, Config config) {
+        return parseClass(sourceFile, source, source.length, config);
+    }
 
+    /**
+     * Parse the first length bytes of source, skipping sources the pre-scan finds no class role
+     * annotation in as they would be parsed only to be dropped
+     */
+    private static JClass parseClass(File sourceFile, byte[] source, int length, Config config) {
+        SCANNED.incrementAndGet();
+        if (!RoleAnnotationScanner.mayDeclareRole(source, length)) {
+            SKIPPED.incrementAndGet();
+            return null;
+        }
+
+        // Parse the highest level node being compilation unit
+        ParseResult<CompilationUnit> parseResult = PARSER.get().parse(new ByteArrayInputStream(source, 0, length));
+
+        return new SourceToObjectUtils(sourceFile, getCompilationUnit(parseResult)).toJClass(sourceFile, config);
+    }
+
+    /**
+     * @return a summary of the sources skipped by the pre-scan since startup
+     */
+    public static String getPreScanStatistics() {
+        return "Pre-scan: " + SKIPPED.get() + " of " + SCANNED.get() + " files skipped before parsing";
+    }
+
+    /**
+     * This method unwraps a parse result, failing like StaticJavaParser on problems
+     *
+     * @param parseResult the result of the calling thread's parser
+     * @return the compilation unit of the file
+     */
+    private static CompilationUnit getCompilationUnit(ParseResult<CompilationUnit> parseResult) {
+        if (!parseResult.isSuccessful() || parseResult.getResult().isEmpty()) {
+            throw new ParseProblemException(parseResult.getProblems());
+        }
+
+        return parseResult.getResult().get();
+    }
+
+    /**
+     * This method builds the JClass object from the parsed compilation unit.
+     *
+     * @param sourceFile the file parsed
+     * @return the JClass object representing the file
+     */
+    private JClass toJClass(File sourceFile, Config config) {
         // Calculate early to determine classrole based on annotation, filter for class based annotations only
-        Set<Annotation> classAnnotations = parseAnnotations(cu.findAll(AnnotationExpr.class).stream().filter(annotationExpr -> {
-            if (annotationExpr.getParentNode().isPresent()) {
-                Node n = annotationExpr.getParentNode().get();
-                return n instanceof ClassOrInterfaceDeclaration;
-            }
-            return false;
-        }).collect(Collectors.toUnmodifiableList()));
+        Set<Annotation> classAnnotations = parseAnnotations(declarations.classAnnotations);
 
-        // calculate the preEndpointURL from RequestMapping annotation
-        String preURL = classAnnotations.stream().filter(ae -> ae.getName().equals("RequestMapping")).map(Annotation::getContents).findFirst().orElse("");
-        preURL = preURL.replace("\"", "");
+        // calculate the preEndpointURL from the class level path annotation (e.g. RequestMapping)
+        String preURL = RECOGNIZERS.findPath(declarations.classAnnotations);
 
         ClassRole classRole = parseClassRole(classAnnotations);
         // Return unknown classRoles where annotation not found
@@ -81,11 +185,11 @@ public class SourceToObjectUtils {
             FileUtils.localPathToGitPath(sourceFile.getPath(), config.getRepoName()),
             packageName,
             classRole,
-            parseMethods(preURL, cu.findAll(MethodDeclaration.class)),
-            parseFields(cu.findAll(FieldDeclaration.class)),
+            parseMethods(preURL, declarations.methods),
+            parseFields(declarations.fields),
             classAnnotations,
-            parseMethodCalls(cu.findAll(MethodDeclaration.class)),
-            cu.findAll(ClassOrInterfaceDeclaration.class).get(0).getImplementedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()));
+            parseMethodCalls(declarations.methods, declarations.methodCalls),
+            declarations.firstClass.getImplementedTypes().stream().map(NodeWithSimpleName::getNameAsString).collect(Collectors.toSet()));
 
     }
 
@@ -97,7 +201,7 @@ public class SourceToObjectUtils {
      * @param methodDeclarations the list of methodDeclarations to be parsed
      * @return a set of Method models representing the MethodDeclarations
      */
-    public static Set<Method> parseMethods(String preURL, List<MethodDeclaration> methodDeclarations) {
+    private Set<Method> parseMethods(String preURL, List<MethodDeclaration> methodDeclarations) {
         // Get params and returnType
         Set<Method> methods = new HashSet<>();
 
@@ -132,29 +236,12 @@ public class SourceToObjectUtils {
      * @param method the Method to be converted
      * @return returns method if it is invalid, otherwise a new Endpoint
      */
-    public static Method convertValidEndpoints(String preURL, MethodDeclaration methodDeclaration, Method method) {
-        String url = preURL + getPathFromAnnotations(methodDeclaration.getAnnotations());
+    private Method convertValidEndpoints(String preURL, MethodDeclaration methodDeclaration, Method method) {
+        String url = preURL + RECOGNIZERS.findPath(methodDeclaration.getAnnotations());
         if (method.getAnnotations().isEmpty() || url.isEmpty()) {
             return method;
         }
-        HttpMethod httpMethod = HttpMethod.NONE;
-        for (AnnotationExpr ae : methodDeclaration.getAnnotations()) {
-
-            switch (ae.getNameAsString()) {
-                case "GetMapping":
-                    httpMethod = HttpMethod.GET;
-                    break;
-                case "PostMapping":
-                    httpMethod = HttpMethod.POST;
-                    break;
-                case "DeleteMapping":
-                    httpMethod = HttpMethod.DELETE;
-                    break;
-                case "PutMapping":
-                    httpMethod = HttpMethod.PUT;
-                    break;
-            }
-        }
+        HttpMethod httpMethod = RECOGNIZERS.findHttpMethod(methodDeclaration.getAnnotations());
 
         return new Endpoint(method, url, httpMethod, microserviceName);
     }
@@ -163,14 +250,16 @@ public class SourceToObjectUtils {
      * This method parses methodDeclarations list and returns a Set of MethodCall models
      *
      * @param methodDeclarations the list of methodDeclarations to be parsed
+     * @param methodCallExprs the calls found in each methodDeclaration, in the same order
      * @return a set of MethodCall models representing MethodCallExpressions found in the MethodDeclarations
      */
-    public static Set<MethodCall> parseMethodCalls(List<MethodDeclaration> methodDeclarations) {
+    private Set<MethodCall> parseMethodCalls(List<MethodDeclaration> methodDeclarations, List<List<MethodCallExpr>> methodCallExprs) {
         Set<MethodCall> methodCalls = new HashSet<>();
 
         // loop through method calls
-        for (MethodDeclaration methodDeclaration : methodDeclarations) {
-            for (MethodCallExpr mce : methodDeclaration.findAll(MethodCallExpr.class)) {
+        for (int i = 0; i < methodDeclarations.size(); i++) {
+            MethodDeclaration methodDeclaration = methodDeclarations.get(i);
+            for (MethodCallExpr mce : methodCallExprs.get(i)) {
                 String methodName = mce.getNameAsString();
 
                 String calledServiceName = getCallingObjectName(mce);
@@ -196,25 +285,17 @@ public class SourceToObjectUtils {
      * @param methodCall the MethodCall to be converted
      * @return returns methodCall if it is invalid, otherwise a new RestCall
      */
-    public static MethodCall convertValidRestCalls(MethodCallExpr methodCallExpr, MethodCall methodCall) {
-        if (!methodCall.getObjectName().equals("restTemplate")) {
+    private MethodCall convertValidRestCalls(MethodCallExpr methodCallExpr, MethodCall methodCall) {
+        RestCallRecognizer recognizer = RECOGNIZERS.getRestCallRecognizer(methodCall.getObjectName());
+        if (recognizer == null) {
             return methodCall;
         }
-        String url = parseURL(methodCallExpr);
+        String url = recognizer.getUrl(methodCallExpr, this::parseURL);
         if (url.isEmpty()) {
             return methodCall;
         }
 
-        HttpMethod httpMethod = HttpMethod.NONE;
-        if (methodCall.getParameterContents().contains("HttpMethod.GET")) {
-            httpMethod = HttpMethod.GET;
-        } else if (methodCall.getParameterContents().contains("HttpMethod.POST")) {
-            httpMethod = HttpMethod.POST;
-        } else if (methodCall.getParameterContents().contains("HttpMethod.DELETE")) {
-            httpMethod = HttpMethod.DELETE;
-        } else if (methodCall.getParameterContents().contains("HttpMethod.PUT")) {
-            httpMethod = HttpMethod.PUT;
-        }
+        HttpMethod httpMethod = recognizer.getHttpMethod(methodCallExpr, methodCall);
 
         return new RestCall(methodCall, url, httpMethod, microserviceName);
     }
@@ -225,7 +306,7 @@ public class SourceToObjectUtils {
      * @param fieldDeclarations the field declarations to parse
      * @return the set of Field models
      */
-    private static Set<Field> parseFields(List<FieldDeclaration> fieldDeclarations) {
+    private Set<Field> parseFields(List<FieldDeclaration> fieldDeclarations) {
         Set<Field> javaFields = new HashSet<>();
 
         // loop through class declarations
@@ -239,52 +320,6 @@ public class SourceToObjectUtils {
         return javaFields;
     }
 
-    /**
-     * This method gets url path from a list of annotation expressions
-     *
-     * @param annotationExprs the annotation expressions to parse
-     * @return the string url
-     */
-    private static String getPathFromAnnotations(List<AnnotationExpr> annotationExprs) {
-        for (AnnotationExpr ae : annotationExprs) {
-            HttpMethod httpMethod = HttpMethod.NONE;
-            switch (ae.getNameAsString()) {
-                case "GetMapping":
-                    httpMethod = HttpMethod.GET;
-                    break;
-                case "PostMapping":
-                    httpMethod = HttpMethod.POST;
-                    break;
-                case "DeleteMapping":
-                    httpMethod = HttpMethod.DELETE;
-                    break;
-                case "PutMapping":
-                    httpMethod = HttpMethod.PUT;
-                    break;
-            }
-
-
-            if (ae.isSingleMemberAnnotationExpr() && httpMethod != HttpMethod.NONE) {
-                return StringParserUtils.simplifyEndpointURL(
-                        StringParserUtils.removeOuterQuotations(
-                                ae.asSingleMemberAnnotationExpr().getMemberValue().toString()));
-            }
-
-            if (ae.isNormalAnnotationExpr() && ae.asNormalAnnotationExpr().getPairs().size() > 0 && httpMethod != HttpMethod.NONE) {
-                for (MemberValuePair mvp : ae.asNormalAnnotationExpr().getPairs()) {
-                    if (mvp.getName().toString().equals("path") || mvp.getName().toString().equals("value")) {
-                        return StringParserUtils.simplifyEndpointURL(
-                                StringParserUtils.removeOuterQuotations(mvp.getValue().toString()));
-                    }
-                }
-            }
-
-        }
-
-
-        return "";
-    }
-
     /**
      * Get the name of the object a method is being called from (callingObj.methodName())
      *
@@ -307,19 +342,12 @@ public class SourceToObjectUtils {
     }
 
     /**
-     * Find the URL from the given method call expression.
+     * Find the URL an expression evaluates to, following fields of this file and concatenations
      *
-     * @param mce the method call to extract url from
+     * @param exp the expression passed as a url
      * @return the URL found
      */
-    private static String parseURL(MethodCallExpr mce) {
-        if (mce.getArguments().isEmpty()) {
-            return "";
-        }
-
-        // Arbitrary index of the url parameter
-        Expression exp = mce.getArguments().get(0);
-
+    private String parseURL(Expression exp) {
         if (exp.isStringLiteralExpr()) {
             return StringParserUtils.removeOuterQuotations(exp.toString());
         } else if (exp.isFieldAccessExpr()) {
@@ -333,20 +361,22 @@ public class SourceToObjectUtils {
         return "";
     }
 
-    private static String parseFieldValue(String fieldName) {
-        for (FieldDeclaration fd : cu.findAll(FieldDeclaration.class)) {
-            if (fd.getVariables().toString().contains(fieldName)) {
-                Expression init = fd.getVariable(0).getInitializer().orElse(null);
-                if (init != null) {
-                    return StringParserUtils.removeOuterQuotations(init.toString());
-                }
-            }
+    /**
+     * Resolve a field name to its initializer through the symbol table built while collecting
+     *
+     * @param fieldName the name of the field
+     * @return the initializer without outer quotations, empty if none is found
+     */
+    private String parseFieldValue(String fieldName) {
+        Expression init = declarations.fieldInitializers.get(fieldName);
+        if (init != null) {
+            return StringParserUtils.removeOuterQuotations(init.toString());
         }
 
         return "";
     }
 
-    private static String parseUrlFromBinaryExp(BinaryExpr exp) {
+    private String parseUrlFromBinaryExp(BinaryExpr exp) {
         StringBuilder returnString = new StringBuilder();
         Expression left = exp.getLeft();
         Expression right = exp.getRight();
@@ -406,7 +436,7 @@ public class SourceToObjectUtils {
      * @param annotationExprs the annotation expressions to parse
      * @return the Set of Annotation models
      */
-    private static Set<Annotation> parseAnnotations(List<AnnotationExpr> annotationExprs) {
+    private Set<Annotation> parseAnnotations(List<AnnotationExpr> annotationExprs) {
         Set<Annotation> annotations = new HashSet<>();
 
         for (AnnotationExpr ae : annotationExprs) {
@@ -459,6 +489,59 @@ public class SourceToObjectUtils {
         return classRole;
     }
 
+    /**
+     * Collects everything a JClass is built from in a single walk of the compilation unit.
+     * Methods, fields and classes are gathered from every depth, including nested and anonymous
+     * classes, and each method call is attributed to all the methods enclosing it.
+     */
+    private static class DeclarationCollector extends VoidVisitorAdapter<Void> {
+        private final List<AnnotationExpr> classAnnotations = new ArrayList<>();
+        private final List<MethodDeclaration> methods = new ArrayList<>();
+        private final List<List<MethodCallExpr>> methodCalls = new ArrayList<>();
+        private final List<FieldDeclaration> fields = new ArrayList<>();
+        private final Map<String, Expression> fieldInitializers = new HashMap<>();
+        private final Deque<List<MethodCallExpr>> enclosingCalls = new ArrayDeque<>();
+        private ClassOrInterfaceDeclaration firstClass;
+
+        @Override
+        public void visit(ClassOrInterfaceDeclaration n, Void arg) {
+            if (firstClass == null) {
+                firstClass = n;
+            }
+            classAnnotations.addAll(n.getAnnotations());
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(MethodDeclaration n, Void arg) {
+            List<MethodCallExpr> calls = new ArrayList<>();
+            methods.add(n);
+            methodCalls.add(calls);
+
+            enclosingCalls.push(calls);
+            super.visit(n, arg);
+            enclosingCalls.pop();
+        }
+
+        @Override
+        public void visit(MethodCallExpr n, Void arg) {
+            for (List<MethodCallExpr> calls : enclosingCalls) {
+                calls.add(n);
+            }
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(FieldDeclaration n, Void arg) {
+            fields.add(n);
+            // The first declaration of a name wins, nested classes may shadow it
+            for (VariableDeclarator variable : n.getVariables()) {
+                variable.getInitializer().ifPresent(init -> fieldInitializers.putIfAbsent(variable.getNameAsString(), init));
+            }
+            super.visit(n, arg);
+        }
+    }
+
     //TODO Generalize and move out
     private static String getMicroserviceName(File sourceFile) {
         return sourceFile.getPath().split(FileUtils.SEPARATOR_SPECIAL)[3];
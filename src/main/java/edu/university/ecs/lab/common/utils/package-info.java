@@ -7,6 +7,9 @@
  * The main classes include:
  *     - {@link edu.university.ecs.lab.common.utils.FileUtils} - Manages file paths and conversions.
  *     - {@link edu.university.ecs.lab.common.utils.JsonReadWriteUtils} - Handles JSON serialization and deserialization.
+ *     - {@link edu.university.ecs.lab.common.utils.PathGlobFilter} - Selects the files to analyze by include and exclude globs.
+ *     - {@link edu.university.ecs.lab.common.utils.PathTrie} - Maps folder paths to values for prefix lookups.
+ *     - {@link edu.university.ecs.lab.common.utils.RoleAnnotationScanner} - Pre-scans sources for class role annotations.
  *     - {@link edu.university.ecs.lab.common.utils.SourceToObjectUtils} - Parses Java source files into data models.
  */
 package edu.university.ecs.lab.common.utils;
@@ -0,0 +1,37 @@
+package edu.university.ecs.lab.delta;
+
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.services.DeltaCompactionService;
+
+/**
+ * This class acts as a runner implementation for folding a chain of Delta files
+ * into one Delta file holding the net change of the whole range
+ */
+public class DeltaCompactionRunner {
+    /**
+     * This method compacts the given Delta files into ./output/Delta.json
+     *
+     * @param args {@literal <Delta-1.json> <Delta-2.json> ...} in commit order
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            Error.reportAndExit(Error.INVALID_ARGS);
+        }
+
+        DeltaCompactionService deltaCompactionService = new DeltaCompactionService();
+        int deltas = 0;
+        for (String deltaPath : args) {
+            SystemChange systemChange = JsonReadWriteUtils.readFromJSON(deltaPath, SystemChange.class);
+            deltas += systemChange.getChanges().size();
+            deltaCompactionService.add(systemChange);
+        }
+
+        SystemChange systemChange = deltaCompactionService.getSystemChange();
+        JsonReadWriteUtils.writeToJSON("./output/Delta.json", systemChange);
+
+        System.out.println("Delta compacted: from " + systemChange.getOldCommit() + " to " + systemChange.getNewCommit()
+                + " (" + deltas + " deltas to " + systemChange.getChanges().size() + ") at ./output/Delta.json");
+    }
+}
@@ -1,6 +1,9 @@
 package edu.university.ecs.lab.delta;
 
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
 import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.services.GitService;
 import edu.university.ecs.lab.delta.services.DeltaExtractionService;
 
 /**
@@ -10,15 +13,20 @@ public class DeltaExtractionRunner {
     /**
      * This method compares two commits on the specified branch in the config
      *
-     * @param args {@literal [/path/to/config] <oldCommit> <newCommit> }
+     * @param args {@literal [/path/to/config] <oldCommit> <newCommit> [parallelism]}
      */
     public static void main(String[] args) throws Exception {
-        args = new String[]{"./config.json", "06f3e1efe2e2539d05d91b0699cc8d9fe7be29d7", "82949fa07dcf82f66641f5807d629d15bab663a6"};
-        if (args.length != 3) {
+        if (args.length == 0) {
+            args = new String[]{"./config.json", "06f3e1efe2e2539d05d91b0699cc8d9fe7be29d7", "82949fa07dcf82f66641f5807d629d15bab663a6"};
+        }
+        if (args.length != 3 && args.length != 4) {
             Error.reportAndExit(Error.INVALID_ARGS);
         }
 
-        DeltaExtractionService deltaService = new DeltaExtractionService(args[0], args[1], args[2]);
+        Config config = ConfigUtil.readConfig(args[0]);
+        int parallelism = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        DeltaExtractionService deltaService = new DeltaExtractionService(config, new GitService(config), args[1], args[2], null, parallelism);
 
         deltaService.generateDelta();
 
@@ -8,9 +8,11 @@
  *   - The {@link edu.university.ecs.lab.delta.models.enums} package, which defines enumerations used within the
  *   data models, such as {@link edu.university.ecs.lab.delta.models.enums.ChangeType}.
  *   - The {@link edu.university.ecs.lab.delta.services} package, which provides services for extracting and
- *   processing differences between commits, such as the {@link edu.university.ecs.lab.delta.services.DeltaExtractionService}.
+ *   processing differences between commits, such as the {@link edu.university.ecs.lab.delta.services.DeltaExtractionService}
+ *   and the {@link edu.university.ecs.lab.delta.services.DeltaCompactionService}.
  *
- * <p>The package also includes a runner class, {@link edu.university.ecs.lab.delta.DeltaExtractionRunner}, for executing
- * a test delta process.</p>
+ * <p>The package also includes runner classes, {@link edu.university.ecs.lab.delta.DeltaExtractionRunner} for executing
+ * a test delta process and {@link edu.university.ecs.lab.delta.DeltaCompactionRunner} for folding a chain of Delta
+ * files into one.</p>
  */
 package edu.university.ecs.lab.delta;
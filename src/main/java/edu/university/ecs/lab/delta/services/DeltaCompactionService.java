@@ -0,0 +1,227 @@
+package edu.university.ecs.lab.delta.services;
+
+import edu.university.ecs.lab.common.models.JClass;
+import edu.university.ecs.lab.delta.models.Delta;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.models.enums.ChangeType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Service folding a sequence of system changes into one system change holding the net deltas of
+ * each path, e.g. an add followed by modifies becomes a single add and an add followed by a delete
+ * disappears. Merging the compacted change gives the same IR as merging every change in turn.
+ * <p>
+ * The net deltas of a java file are chosen by replaying its deltas the way the merge applies them,
+ * both to a class of a microservice and to an orphan, from every state the file may start in. The
+ * shortest sequence with the same outcome is kept, which is a single delta except for rare cases
+ * such as a file deleted and added again. An add of a file that may still be in the IR leaves both
+ * classes in it, as the merge appends added classes, so such a history is never shortened. A
+ * pom.xml is reduced to whether it exists at the end.
+ * <p>
+ * As the merge applies pom.xml deltas before java deltas, a java file that moves between an orphan
+ * and a microservice within the range is treated as if the final microservice structure applied
+ * throughout.
+ */
+public class DeltaCompactionService {
+    /**
+     * States of a file in the IR while replaying deltas, besides the class it holds
+     */
+    private static final Object ABSENT = new Object();
+    private static final Object PREVIOUS = new Object();
+
+    /**
+     * The compacted deltas of each path, in order of first change
+     */
+    private final Map<String, PathHistory> histories = new LinkedHashMap<>();
+
+    private String oldCommit;
+    private String newCommit;
+
+    /**
+     * The net deltas of one path
+     */
+    private static class PathHistory {
+        /**
+         * Whether the file existed before the first change, so it may already be in the IR
+         */
+        private final boolean existedBefore;
+        private List<Delta> deltas = new ArrayList<>();
+
+        private PathHistory(boolean existedBefore) {
+            this.existedBefore = existedBefore;
+        }
+    }
+
+    /**
+     * Fold a sequence of system changes into one
+     *
+     * @param systemChanges the changes of consecutive commit pairs, oldest first
+     * @return the system change from the first old commit to the last new commit
+     */
+    public static SystemChange compact(List<SystemChange> systemChanges) {
+        DeltaCompactionService deltaCompactionService = new DeltaCompactionService();
+        for (SystemChange systemChange : systemChanges) {
+            deltaCompactionService.add(systemChange);
+        }
+
+        return deltaCompactionService.getSystemChange();
+    }
+
+    /**
+     * Fold the next system change into the compacted change
+     *
+     * @param systemChange the change following the changes added so far
+     */
+    public void add(SystemChange systemChange) {
+        if (oldCommit == null) {
+            oldCommit = systemChange.getOldCommit();
+        }
+        newCommit = systemChange.getNewCommit();
+
+        if (Objects.isNull(systemChange.getChanges())) {
+            return;
+        }
+
+        for (Delta delta : systemChange.getChanges()) {
+            String path = delta.getOldPath() == null ? delta.getNewPath() : delta.getOldPath();
+            PathHistory history = histories.computeIfAbsent(path, key -> new PathHistory(!ChangeType.ADD.equals(delta.getChangeType())));
+
+            history.deltas.add(delta);
+            history.deltas = path.endsWith("pom.xml") ? compactPom(path, history) : compactClass(path, history);
+        }
+    }
+
+    /**
+     * @return the system change holding the net deltas of the changes added so far
+     */
+    public SystemChange getSystemChange() {
+        SystemChange systemChange = new SystemChange();
+        systemChange.setOldCommit(oldCommit);
+        systemChange.setNewCommit(newCommit);
+
+        for (PathHistory history : histories.values()) {
+            systemChange.getChanges().addAll(history.deltas);
+        }
+
+        return systemChange;
+    }
+
+    /**
+     * A pom.xml only matters by whether it exists, the merge ignores its modifications
+     */
+    private static List<Delta> compactPom(String path, PathHistory history) {
+        boolean exists = !ChangeType.DELETE.equals(history.deltas.get(history.deltas.size() - 1).getChangeType());
+
+        List<Delta> deltas = new ArrayList<>();
+        if (!history.existedBefore) {
+            if (exists) {
+                deltas.add(add(path, null));
+            }
+        } else {
+            deltas.add(exists ? modify(path, null) : delete(path));
+        }
+
+        return deltas;
+    }
+
+    /**
+     * Find the shortest deltas of a java file with the same outcome as its full history
+     */
+    private static List<Delta> compactClass(String path, PathHistory history) {
+        Delta last = history.deltas.get(history.deltas.size() - 1);
+        JClass jClass = ChangeType.DELETE.equals(last.getChangeType()) ? null : last.getClassChange();
+
+        List<List<Delta>> candidates = new ArrayList<>();
+        candidates.add(List.of());
+        if (jClass != null) {
+            candidates.add(List.of(add(path, jClass)));
+        }
+        candidates.add(List.of(modify(path, jClass)));
+        candidates.add(List.of(delete(path)));
+        candidates.add(List.of(modify(path, null)));
+        if (jClass != null) {
+            candidates.add(List.of(delete(path), add(path, jClass)));
+        }
+        candidates.add(List.of(modify(path, null), modify(path, jClass)));
+
+        for (List<Delta> candidate : candidates) {
+            if (candidate.size() < history.deltas.size() && isEquivalent(candidate, history.deltas, history.existedBefore)) {
+                return new ArrayList<>(candidate);
+            }
+        }
+
+        return history.deltas;
+    }
+
+    /**
+     * Whether two delta sequences leave a file in the same state, both as a class of a
+     * microservice and as an orphan, from every state the file may start in
+     */
+    private static boolean isEquivalent(List<Delta> candidate, List<Delta> deltas, boolean existedBefore) {
+        Object[] initialStates = existedBefore ? new Object[]{ABSENT, PREVIOUS} : new Object[]{ABSENT};
+
+        for (Object initialState : initialStates) {
+            for (boolean orphan : new boolean[]{false, true}) {
+                if (replay(candidate, initialState, orphan) != replay(deltas, initialState, orphan)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Replay deltas on the state of a file the way the merge applies them
+     *
+     * @return ABSENT, PREVIOUS, the JClass the file ends with or an outcome equal to no other
+     * replay if a class was added next to the one already held
+     */
+    private static Object replay(List<Delta> deltas, Object state, boolean orphan) {
+        Object duplicate = new Object();
+
+        for (Delta delta : deltas) {
+            if (state == duplicate) {
+                break;
+            }
+
+            JClass jClass = delta.getClassChange();
+            switch (delta.getChangeType()) {
+                case ADD:
+                    // The merge appends the added class, any class already held stays in the IR
+                    if (jClass != null) {
+                        state = state == ABSENT ? jClass : duplicate;
+                    }
+                    break;
+                case MODIFY:
+                    // A modified orphan is only added back if it was found in the orphan pool
+                    if (!(orphan && state == ABSENT)) {
+                        state = jClass == null ? ABSENT : jClass;
+                    }
+                    break;
+                case DELETE:
+                    state = ABSENT;
+                    break;
+            }
+        }
+
+        return state;
+    }
+
+    private static Delta add(String path, JClass jClass) {
+        return new Delta(null, path, ChangeType.ADD, jClass);
+    }
+
+    private static Delta modify(String path, JClass jClass) {
+        return new Delta(path, path, ChangeType.MODIFY, jClass);
+    }
+
+    private static Delta delete(String path) {
+        return new Delta(path, null, ChangeType.DELETE, null);
+    }
+}
@@ -5,21 +5,35 @@ import edu.university.ecs.lab.common.config.ConfigUtil;
 import edu.university.ecs.lab.common.error.Error;
 import edu.university.ecs.lab.common.models.JClass;
 import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
 import edu.university.ecs.lab.common.utils.FileUtils;
 import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.common.utils.PathGlobFilter;
 import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
 import edu.university.ecs.lab.delta.models.Delta;
 import edu.university.ecs.lab.delta.models.SystemChange;
 import edu.university.ecs.lab.delta.models.enums.ChangeType;
 import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.ObjectId;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service for extracting the differences between two commits of a repository
  */
 public class DeltaExtractionService {
+    /**
+     * Parallelism level at or below which changed files are parsed sequentially
+     */
+    public static final int SEQUENTIAL = 1;
 
     /**
      * Config object representing the contents of the config file
@@ -41,6 +55,16 @@ public class DeltaExtractionService {
      */
     private final String commitNew;
 
+    /**
+     * Cache of previously parsed files, null when caching is disabled
+     */
+    private final ParseCacheService parseCache;
+
+    /**
+     * Number of worker threads used for parsing changed files, {@link #SEQUENTIAL} disables the pool
+     */
+    private final int parallelism;
+
 
     /**
      * Constructor for the DeltaExtractionService
@@ -50,10 +74,52 @@ public class DeltaExtractionService {
      * @param commitNew new commit for comparison
      */
     public DeltaExtractionService(String configPath, String commitOld, String commitNew) {
-        this.config = ConfigUtil.readConfig(configPath);
-        this.gitService = new GitService(configPath);
+        this(configPath, commitOld, commitNew, null);
+    }
+
+    /**
+     * Constructor for the DeltaExtractionService
+     *
+     * @param configPath path to the config file
+     * @param commitOld old commit for comparison
+     * @param commitNew new commit for comparison
+     * @param parseCache cache of parsed files to consult before parsing, may be null
+     */
+    public DeltaExtractionService(String configPath, String commitOld, String commitNew, ParseCacheService parseCache) {
+        this(ConfigUtil.readConfig(configPath), new GitService(configPath), commitOld, commitNew, parseCache);
+    }
+
+    /**
+     * Constructor for the DeltaExtractionService
+     *
+     * @param config the configuration object
+     * @param gitService the service of the local clone, may be shared between extractions
+     * @param commitOld old commit for comparison
+     * @param commitNew new commit for comparison
+     * @param parseCache cache of parsed files to consult before parsing, may be null
+     */
+    public DeltaExtractionService(Config config, GitService gitService, String commitOld, String commitNew, ParseCacheService parseCache) {
+        this(config, gitService, commitOld, commitNew, parseCache, SEQUENTIAL);
+    }
+
+    /**
+     * Constructor for the DeltaExtractionService
+     *
+     * @param config the configuration object
+     * @param gitService the service of the local clone, may be shared between extractions
+     * @param commitOld old commit for comparison
+     * @param commitNew new commit for comparison
+     * @param parseCache cache of parsed files to consult before parsing, may be null
+     * @param parallelism number of worker threads used to parse changed files,
+     *                    values of {@link #SEQUENTIAL} or less parse on the calling thread
+     */
+    public DeltaExtractionService(Config config, GitService gitService, String commitOld, String commitNew, ParseCacheService parseCache, int parallelism) {
+        this.config = config;
+        this.gitService = gitService;
         this.commitOld = commitOld;
         this.commitNew = commitNew;
+        this.parseCache = parseCache;
+        this.parallelism = parallelism;
     }
 
     /**
@@ -66,7 +132,7 @@ public class DeltaExtractionService {
         gitService.resetLocal(commitOld);
 
         try {
-            differences = gitService.getDifferences(commitOld, commitNew);
+            differences = gitService.getDifferences(commitOld, commitNew, PathGlobFilter.createSourceFilter(config));
 
         } catch (Exception e) {
             Error.reportAndExit(Error.GIT_FAILED);
@@ -80,84 +146,264 @@ public class DeltaExtractionService {
 
     }
 
+    /**
+     * Generates Delta file representing changes between commitOld and commitNew reading
+     * changed files straight from the object database. Neither commit is checked out,
+     * so the working tree is left untouched.
+     */
+    public void generateDeltaFromTrees() {
+        List<DiffEntry> differences = null;
+
+        try {
+            differences = gitService.getDifferences(commitOld, commitNew, PathGlobFilter.createSourceFilter(config));
+
+        } catch (Exception e) {
+            Error.reportAndExit(Error.GIT_FAILED);
+        }
+
+        // process/write differences to delta output
+        processDelta(differences, true);
+
+    }
+
+    /**
+     * Extracts the changes between commitOld and commitNew reading changed files straight
+     * from the object database, without writing them to a Delta file.
+     *
+     * @return the system change between the two commits
+     */
+    public SystemChange extractDeltaFromTrees() {
+        List<DiffEntry> differences = null;
+
+        try {
+            differences = gitService.getDifferences(commitOld, commitNew, PathGlobFilter.createSourceFilter(config));
+
+        } catch (Exception e) {
+            Error.reportAndExit(Error.GIT_FAILED);
+        }
+
+        return createSystemChange(differences, true);
+    }
+
+    /**
+     * Converts differences already computed between commitOld and commitNew into a system
+     * change, reading changed files straight from the object database.
+     *
+     * @param diffEntries the list of differences extracted by GitService
+     * @return the system change between the two commits
+     */
+    public SystemChange extractDelta(List<DiffEntry> diffEntries) {
+        return createSystemChange(diffEntries, true);
+    }
+
+    /**
+     * Process the differences between the local and remote repository and write the differences to a
+     * file.
+     *
+     * @param diffEntries the list of differences extracted by GitService
+     */
+    public SystemChange processDelta(List<DiffEntry> diffEntries) {
+        return processDelta(diffEntries, false);
+    }
+
     /**
      * Process the differences between the local and remote repository and write the differences to a
      * file.
      *
      * @param diffEntries the list of differences extracted by GitService
+     * @param fromTrees whether changed files are read from their blobs instead of the working tree
+     * @return the system change written
      */
-    public void processDelta(List<DiffEntry> diffEntries) {
+    public SystemChange processDelta(List<DiffEntry> diffEntries, boolean fromTrees) {
+        SystemChange systemChange = createSystemChange(diffEntries, fromTrees);
+
+        JsonReadWriteUtils.writeToJSON("./output/Delta.json", systemChange);
+
+        System.out.println("Delta extracted: from " + commitOld + " to " + commitNew + " at ./output/Delta.json");
+
+        return systemChange;
+    }
+
+    /**
+     * Convert the differences between commitOld and commitNew into a system change. Changed files
+     * are parsed on a worker pool when parallelism allows, deltas keep the order of diffEntries.
+     *
+     * @param diffEntries the list of differences extracted by GitService
+     * @param fromTrees whether changed files are read from their blobs instead of the working tree
+     * @return the system change holding one delta per changed java or pom.xml file
+     */
+    private SystemChange createSystemChange(List<DiffEntry> diffEntries, boolean fromTrees) {
 
         // Set up a new SystemChangeObject
         SystemChange systemChange = new SystemChange();
         systemChange.setOldCommit(commitOld);
         systemChange.setNewCommit(commitNew);
 
-        // process each difference
+        // process each difference, the diff entry of each delta is kept to parse its file
+        List<Delta> deltas = new ArrayList<>();
+        List<DiffEntry> entries = new ArrayList<>();
         for (DiffEntry entry : diffEntries) {
-
-            if (commitNew.startsWith("a78")) {
-                System.out.println("RENAME" + entry);
+            switch (entry.getChangeType()) {
+                case RENAME:
+                    // The IR is keyed by path, a rename removes the old file and adds the new one
+                    addDelta(deltas, entries, entry, ChangeType.DELETE, entry.getOldPath());
+                    addDelta(deltas, entries, entry, ChangeType.ADD, entry.getNewPath());
+                    break;
+                case COPY:
+                    addDelta(deltas, entries, entry, ChangeType.ADD, entry.getNewPath());
+                    break;
+                case DELETE:
+                    addDelta(deltas, entries, entry, ChangeType.DELETE, entry.getOldPath());
+                    break;
+                default:
+                    addDelta(deltas, entries, entry, ChangeType.fromDiffEntry(entry), entry.getNewPath());
+                    break;
             }
+        }
 
-            // If its not a java file and doesnt end with pom.xml
-            String path = entry.getChangeType().equals(DiffEntry.ChangeType.DELETE) ? entry.getOldPath() : entry.getNewPath();
+        List<JClass> classes = parseClasses(deltas, entries, fromTrees);
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta delta = deltas.get(i);
+            JClass jClass = classes.get(i);
 
-            // If paths doesnt end with java or (path doesnt end with java or pom)
-            if (!path.endsWith(".java") && !path.endsWith("pom.xml")) {
+            // If we try to parse and it is still null, for ADD we will skip
+            // For MODIFY we will let pass since it might be modifying a previously accepted file
+            if (jClass == null && ChangeType.ADD.equals(delta.getChangeType()) && delta.getNewPath().endsWith(".java")) {
                 continue;
             }
 
-            String oldPath = "";
-            String newPath = "";
-
-            if (DiffEntry.ChangeType.DELETE.equals(entry.getChangeType())) {
-                oldPath = FileUtils.GIT_SEPARATOR + entry.getOldPath();
-                newPath = null;
+            delta.setClassChange(jClass);
+            systemChange.getChanges().add(delta);
+        }
 
-            } else if (DiffEntry.ChangeType.ADD.equals(entry.getChangeType())) {
-                oldPath = null;
-                newPath = FileUtils.GIT_SEPARATOR + entry.getNewPath();
+        return systemChange;
+    }
 
-            } else {
-                oldPath = FileUtils.GIT_SEPARATOR + entry.getOldPath();
-                newPath = FileUtils.GIT_SEPARATOR + entry.getNewPath();
+    /**
+     * Add the delta of one changed java or pom.xml file, its class is parsed afterwards
+     *
+     * @param deltas the deltas to add to
+     * @param entries the diff entries of the deltas to add to
+     * @param entry the diff entry of the file
+     * @param changeType the change applied to the IR
+     * @param path the git path of the file, the old path for DELETE and the new path otherwise
+     */
+    private void addDelta(List<Delta> deltas, List<DiffEntry> entries, DiffEntry entry, ChangeType changeType, String path) {
 
-            }
+        // If paths doesnt end with java or (path doesnt end with java or pom)
+        if (!path.endsWith(".java") && !path.endsWith("pom.xml")) {
+            return;
+        }
 
+        String oldPath = "";
+        String newPath = "";
 
-            // Get the class, if we are a delete the file for parsing no longer exists
-            // If we are a pom.xml we cannot parse
-            JClass jClass = null;
-            if (!path.endsWith("pom.xml")) {
+        if (ChangeType.DELETE.equals(changeType)) {
+            oldPath = FileUtils.GIT_SEPARATOR + path;
+            newPath = null;
 
-                if (!entry.getChangeType().equals(DiffEntry.ChangeType.DELETE)) {
+        } else if (ChangeType.ADD.equals(changeType)) {
+            oldPath = null;
+            newPath = FileUtils.GIT_SEPARATOR + path;
 
-                    jClass = SourceToObjectUtils.parseClass(new File(FileUtils.gitPathToLocalPath(newPath, config.getRepoName())), config);
+        } else {
+            oldPath = FileUtils.GIT_SEPARATOR + entry.getOldPath();
+            newPath = FileUtils.GIT_SEPARATOR + entry.getNewPath();
 
-                    // If we try to parse and it is still null, for ADD we will skip
-                    if (jClass == null && entry.getChangeType().equals(DiffEntry.ChangeType.ADD)) {
-                        continue;
-                    }
+        }
 
-                    // For MODIFY we will let pass since it might be modifying a previously accepted file
+        deltas.add(new Delta(oldPath, newPath, changeType, null));
+        entries.add(entry);
+    }
 
-                }
+    /**
+     * Parse the classes of the deltas, on the worker pool if parallelism allows
+     *
+     * @param deltas the deltas to parse the classes of
+     * @param entries the diff entry of each delta
+     * @param fromTrees whether changed files are read from their blobs instead of the working tree
+     * @return the class of each delta in the order of deltas, null where there is none
+     */
+    private List<JClass> parseClasses(List<Delta> deltas, List<DiffEntry> entries, boolean fromTrees) {
+        if (parallelism <= SEQUENTIAL) {
+            return parseClasses(IntStream.range(0, deltas.size()), deltas, entries, fromTrees);
+        }
 
-            }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> parseClasses(IntStream.range(0, deltas.size()).parallel(), deltas, entries, fromTrees)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Error.reportAndExit(Error.JPARSE_FAILED);
+            return null;
+        } catch (ExecutionException e) {
+            Error.reportAndExit(Error.JPARSE_FAILED);
+            return null;
+        } finally {
+            pool.shutdown();
+        }
+    }
 
+    private List<JClass> parseClasses(IntStream indices, List<Delta> deltas, List<DiffEntry> entries, boolean fromTrees) {
+        return indices.mapToObj(i -> parseClass(deltas.get(i), entries.get(i), fromTrees)).collect(Collectors.toList());
+    }
 
-            // If the class isn't ours and it isn't a folder or Docker or Pom
+    /**
+     * Get the class of a delta, if we are a delete the file for parsing no longer exists
+     * and if we are a pom.xml we cannot parse
+     */
+    private JClass parseClass(Delta delta, DiffEntry entry, boolean fromTrees) {
+        if (ChangeType.DELETE.equals(delta.getChangeType()) || delta.getNewPath().endsWith("pom.xml")) {
+            return null;
+        }
 
-            systemChange.getChanges().add(new Delta(oldPath, newPath, ChangeType.fromDiffEntry(entry), jClass));
+        return fromTrees ? parseBlob(entry, delta.getNewPath()) : parseFile(entry, delta.getNewPath());
+    }
 
+    /**
+     * Parse the new version of a changed file, answering from the parse cache
+     * when the same blob was parsed before.
+     *
+     * @param entry the diff entry of the file
+     * @param newPath the git path of the file at commitNew
+     * @return the JClass of the file or null if it is not of a known class role
+     */
+    private JClass parseFile(DiffEntry entry, String newPath) {
+        File file = new File(FileUtils.gitPathToLocalPath(newPath, config.getRepoName()));
+        if (parseCache == null) {
+            return SourceToObjectUtils.parseClass(file, config);
         }
 
-        JsonReadWriteUtils.writeToJSON("./output/Delta.json", systemChange);
-
-        System.out.println("Delta extracted: from " + commitOld + " to " + commitNew + " at ./output/Delta.json");
+        String blobId;
+        if (entry.getNewId().isComplete()) {
+            blobId = entry.getNewId().name();
+        } else {
+            try {
+                blobId = ParseCacheService.blobId(Files.readAllBytes(file.toPath()));
+            } catch (IOException e) {
+                Error.reportAndExit(Error.JPARSE_FAILED);
+                return null;
+            }
+        }
 
+        return parseCache.computeIfAbsent(blobId, newPath, () -> SourceToObjectUtils.parseClass(file, config));
     }
 
+    /**
+     * Parse the new version of a changed file straight from its blob, answering
+     * from the parse cache when the same blob was parsed before.
+     *
+     * @param entry the diff entry of the file
+     * @param newPath the git path of the file at commitNew
+     * @return the JClass of the file or null if it is not of a known class role
+     */
+    private JClass parseBlob(DiffEntry entry, String newPath) {
+        File file = new File(FileUtils.gitPathToLocalPath(newPath, config.getRepoName()));
+        ObjectId blobId = entry.getNewId().toObjectId();
+        if (parseCache == null) {
+            return SourceToObjectUtils.parseClass(file, gitService.readBlob(blobId), config);
+        }
 
+        return parseCache.computeIfAbsent(blobId.name(), newPath, () -> SourceToObjectUtils.parseClass(file, gitService.readBlob(blobId), config));
+    }
 }
@@ -3,6 +3,7 @@
  * commits in a repository.
  *
  * <p>The main service in this package handles the extraction of differences between two specified commits. It utilizes various utility classes
- * and models from the common library to achieve this.</p>
+ * and models from the common library to achieve this. A compaction service folds the changes of consecutive commits
+ * into the net change of the whole range.</p>
  */
 package edu.university.ecs.lab.delta.services;
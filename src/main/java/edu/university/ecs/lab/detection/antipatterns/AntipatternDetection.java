@@ -1,22 +1,43 @@
 package edu.university.ecs.lab.detection.antipatterns;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import edu.university.ecs.lab.common.config.Config;
 import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.error.Error;
 import edu.university.ecs.lab.common.models.MicroserviceSystem;
 import edu.university.ecs.lab.common.models.NetworkGraph;
 import edu.university.ecs.lab.common.utils.FileUtils;
 import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
 import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
-import edu.university.ecs.lab.detection.antipatterns.models.*;
-import edu.university.ecs.lab.detection.antipatterns.services.*;
+import edu.university.ecs.lab.detection.antipatterns.models.AntipatternReport;
+import edu.university.ecs.lab.detection.antipatterns.models.ServiceChain;
+import edu.university.ecs.lab.detection.antipatterns.services.AntipatternDetectionService;
+import edu.university.ecs.lab.detection.antipatterns.services.CyclicDependencyService;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
 
 public class AntipatternDetection {
+    /**
+     * Cyclic dependency modes, reporting strongly connected components or enumerating elementary cycles
+     */
+    private static final String COMPONENTS = "components";
+    private static final String CYCLES = "cycles";
+
+    /**
+     * Entry point for the anti-pattern detection
+     *
+     * @param args {@literal [components|cycles] [maxCycles]}
+     */
     public static void main(String[] args) {
+        if (args.length > 2 || (args.length > 0 && !COMPONENTS.equals(args[0]) && !CYCLES.equals(args[0]))) {
+            Error.reportAndExit(Error.INVALID_ARGS);
+        }
+
+        boolean elementaryCycles = args.length > 0 && CYCLES.equals(args[0]);
+        int maxCycles = args.length > 1 ? Integer.parseInt(args[1]) : CyclicDependencyService.DEFAULT_MAX_CYCLES;
 
         Config config = ConfigUtil.readConfig("./config.json");
 
@@ -31,64 +52,30 @@ public class AntipatternDetection {
 
         writeObjectToJsonFile(sdg, "networkgraph.json");
 
-        int detectedAntipatterns = 0;
+        AntipatternDetectionService detectionService = new AntipatternDetectionService("./healthcheck.yaml", "./apigateway.yaml", elementaryCycles, maxCycles);
+        AntipatternReport report = detect(detectionService, currentSystem, sdg, "servicechain.json");
 
-        GreedyService greedy = new GreedyService();
-        GreedyMicroservice greedyMicroservices = greedy.getGreedyMicroservices(sdg);
-        if (!greedyMicroservices.getGreedyMicroservices().isEmpty()){
-            detectedAntipatterns++;
-            writeObjectToJsonFile(greedyMicroservices, "greedy.json");
+        if (!report.getGreedyMicroservices().getGreedyMicroservices().isEmpty()){
+            writeObjectToJsonFile(report.getGreedyMicroservices(), "greedy.json");
         }
-        
-        HubLikeService hublike = new HubLikeService();
-        HubLikeMicroservice hublikeMicroservices = hublike.getHubLikeMicroservice(sdg);
-        if (!hublikeMicroservices.getHublikeMicroservices().isEmpty()){
-            detectedAntipatterns++;
-            writeObjectToJsonFile(hublikeMicroservices, "hublike.json");
-        }
-        
 
-        ServiceChainService chainService = new ServiceChainService();
-        List<ServiceChain> allChains = chainService.getServiceChains(sdg);
-        if (!allChains.isEmpty()){
-            detectedAntipatterns++;
-            writeObjectToJsonFile(allChains, "servicechain.json");
-        }
-        
-        WrongCutsService wrongCutsService = new WrongCutsService();
-        List<WrongCuts> wrongCuts = wrongCutsService.identifyAndReportWrongCuts(sdg);
-        if (!wrongCuts.isEmpty()){
-            detectedAntipatterns++;
-            writeObjectToJsonFile(wrongCuts, "wrongcuts.json");
+        if (!report.getHubLikeMicroservices().getHublikeMicroservices().isEmpty()){
+            writeObjectToJsonFile(report.getHubLikeMicroservices(), "hublike.json");
         }
-        
-        CyclicDependencyService cycles = new CyclicDependencyService();
-        List<CyclicDependency> cycleDependencies = cycles.findCyclicDependencies(sdg);
-        if (!cycleDependencies.isEmpty()){
-            detectedAntipatterns++;
-            writeObjectToJsonFile(cycleDependencies, "cyclicdependencies.json");
-        }
-        
-        NoHealthcheckService noHealthCheckService = new NoHealthcheckService();
-        NoHealthcheck noHealthCheck = noHealthCheckService.checkHealthcheck("./healthcheck.yaml");
-        if (noHealthCheck.getnoHealthcheck()){
-            detectedAntipatterns++;
+
+        if (!report.getWrongCuts().isEmpty()){
+            writeObjectToJsonFile(report.getWrongCuts(), "wrongcuts.json");
         }
 
-        WobblyServiceInteractionService wobbly = new WobblyServiceInteractionService();
-        List<WobblyServiceInteraction> wobblyService = wobbly.checkForWobblyServiceInteractions(currentSystem);
-        if (!wobblyService.isEmpty()){
-            detectedAntipatterns++;
-            writeObjectToJsonFile(wobblyService, "wobblyserviceinteractions.json");
+        if (!report.getCyclicDependencies().isEmpty()){
+            writeObjectToJsonFile(report.getCyclicDependencies(), "cyclicdependencies.json");
         }
 
-        NoApiGatewayService noApiGatewayService = new NoApiGatewayService();
-        NoApiGateway noApiGateway = noApiGatewayService.checkforApiGateway("./apigateway.yaml");
-        if (noApiGateway.getnoApiGateway()){
-            detectedAntipatterns++;
+        if (!report.getWobblyServiceInteractions().isEmpty()){
+            writeObjectToJsonFile(report.getWobblyServiceInteractions(), "wobblyserviceinteractions.json");
         }
 
-        System.out.println("Number of Anti-Patterns Detected: " + detectedAntipatterns);
+        System.out.println("Number of Anti-Patterns Detected: " + report.getDetectedCount());
 
     }
 
@@ -103,6 +90,34 @@ public class AntipatternDetection {
         irExtractionService.generateIR(fileName);
     }
 
+    /**
+     * Detect the anti-patterns of the system, streaming the service chains into a JSON array as they are found
+     *
+     * @param detectionService the service running the detectors
+     * @param system the microservice system to analyze
+     * @param networkGraph the network graph of the system
+     * @param filename the name of the service chain output file
+     * @return the anti-patterns detected
+     */
+    private static AntipatternReport detect(AntipatternDetectionService detectionService, MicroserviceSystem system,
+                                            NetworkGraph networkGraph, String filename) {
+        Gson gson = new Gson();
+        AntipatternReport report = null;
+
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(new FileWriter("./output/" + filename)))) {
+            writer.beginArray();
+            report = detectionService.detect(system, networkGraph, chain -> gson.toJson(chain, ServiceChain.class, writer));
+            writer.endArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        System.out.println("Successfully wrote rest extraction to: \"" + filename + "\"");
+
+        // Still report the anti-patterns when the chains could not be written
+        return report != null ? report : detectionService.detect(system, networkGraph);
+    }
+
     public static <T> void writeObjectToJsonFile(T object, String filename) {
         Gson gson = new Gson();
         String json = gson.toJson(object);
@@ -0,0 +1,91 @@
+package edu.university.ecs.lab.detection.antipatterns.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Represents the anti-patterns detected in one version of a microservice system
+ */
+@Data
+@AllArgsConstructor
+public class AntipatternReport {
+    /**
+     * Microservices identified as greedy
+     */
+    private GreedyMicroservice greedyMicroservices;
+
+    /**
+     * Microservices identified as hub-like
+     */
+    private HubLikeMicroservice hubLikeMicroservices;
+
+    /**
+     * Number of service chains found, the chains themselves are streamed as they are found
+     */
+    private int serviceChainCount;
+
+    /**
+     * The longest service chain or null if no chain links two services
+     */
+    private ServiceChain longestServiceChain;
+
+    /**
+     * Clusters of services that are incorrectly interconnected
+     */
+    private List<WrongCuts> wrongCuts;
+
+    /**
+     * Cyclic dependencies between services
+     */
+    private List<CyclicDependency> cyclicDependencies;
+
+    /**
+     * Whether the health check configuration is missing
+     */
+    private NoHealthcheck noHealthcheck;
+
+    /**
+     * Wobbly service interactions found in the classes of the system
+     */
+    private List<WobblyServiceInteraction> wobblyServiceInteractions;
+
+    /**
+     * Whether the API gateway configuration is missing
+     */
+    private NoApiGateway noApiGateway;
+
+    /**
+     * @return the number of anti-pattern kinds detected
+     */
+    public int getDetectedCount() {
+        int detected = 0;
+        if (!greedyMicroservices.getGreedyMicroservices().isEmpty()) {
+            detected++;
+        }
+        if (!hubLikeMicroservices.getHublikeMicroservices().isEmpty()) {
+            detected++;
+        }
+        if (serviceChainCount > 0) {
+            detected++;
+        }
+        if (!wrongCuts.isEmpty()) {
+            detected++;
+        }
+        if (!cyclicDependencies.isEmpty()) {
+            detected++;
+        }
+        if (noHealthcheck.getnoHealthcheck()) {
+            detected++;
+        }
+        if (!wobblyServiceInteractions.isEmpty()) {
+            detected++;
+        }
+        if (noApiGateway.getnoApiGateway()) {
+            detected++;
+        }
+
+        return detected;
+    }
+}
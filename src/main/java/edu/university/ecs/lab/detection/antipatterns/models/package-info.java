@@ -3,6 +3,8 @@
  * These models are used to represent different aspects of microservice architecture and anti-patterns.
  * <p>
  * Models:
+ * - {@link edu.university.ecs.lab.detection.antipatterns.models.AntipatternReport}: Represents all anti-patterns
+ *   detected in one version of a microservice system.
  * - {@link edu.university.ecs.lab.detection.antipatterns.models.CyclicDependency}: Represents cyclic dependencies
  *   detected within a microservice network graph.
  * - {@link edu.university.ecs.lab.detection.antipatterns.models.GreedyMicroservice}: Represents microservices identified
@@ -0,0 +1,100 @@
+package edu.university.ecs.lab.detection.antipatterns.services;
+
+import edu.university.ecs.lab.common.models.CompactGraph;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.NetworkGraph;
+import edu.university.ecs.lab.detection.antipatterns.models.AntipatternReport;
+import edu.university.ecs.lab.detection.antipatterns.models.ServiceChain;
+
+import java.util.function.Consumer;
+
+/**
+ * Service running every anti-pattern detector on a microservice system and its network graph.
+ * The graph based detectors share one {@link CompactGraph} built per detection.
+ */
+public class AntipatternDetectionService {
+    private final String healthcheckPath;
+    private final String apiGatewayPath;
+
+    /**
+     * Whether cyclic dependencies are reported as elementary cycles instead of strongly connected components
+     */
+    private final boolean elementaryCycles;
+
+    private final GreedyService greedyService = new GreedyService();
+    private final HubLikeService hubLikeService = new HubLikeService();
+    private final ServiceChainService serviceChainService = new ServiceChainService();
+    private final WrongCutsService wrongCutsService = new WrongCutsService();
+    private final CyclicDependencyService cyclicDependencyService;
+    private final NoHealthcheckService noHealthcheckService = new NoHealthcheckService();
+    private final WobblyServiceInteractionService wobblyService = new WobblyServiceInteractionService();
+    private final NoApiGatewayService noApiGatewayService = new NoApiGatewayService();
+
+    /**
+     * @param healthcheckPath the path of the YAML file holding the health check configuration
+     * @param apiGatewayPath the path of the YAML file holding the API gateway configuration
+     */
+    public AntipatternDetectionService(String healthcheckPath, String apiGatewayPath) {
+        this(healthcheckPath, apiGatewayPath, false, CyclicDependencyService.DEFAULT_MAX_CYCLES);
+    }
+
+    /**
+     * @param healthcheckPath the path of the YAML file holding the health check configuration
+     * @param apiGatewayPath the path of the YAML file holding the API gateway configuration
+     * @param elementaryCycles whether to enumerate the elementary cycles of the cyclic dependencies
+     *                         with Johnson's algorithm instead of reporting strongly connected components
+     * @param maxCycles maximum number of elementary cycles to enumerate
+     */
+    public AntipatternDetectionService(String healthcheckPath, String apiGatewayPath, boolean elementaryCycles, int maxCycles) {
+        this.healthcheckPath = healthcheckPath;
+        this.apiGatewayPath = apiGatewayPath;
+        this.elementaryCycles = elementaryCycles;
+        this.cyclicDependencyService = new CyclicDependencyService(maxCycles);
+    }
+
+    /**
+     * This method detects all anti-patterns, discarding the service chains once counted
+     *
+     * @param system the microservice system to analyze
+     * @param networkGraph the network graph of the system
+     * @return the anti-patterns detected
+     */
+    public AntipatternReport detect(MicroserviceSystem system, NetworkGraph networkGraph) {
+        return detect(system, networkGraph, chain -> {});
+    }
+
+    /**
+     * This method detects all anti-patterns
+     *
+     * @param system the microservice system to analyze
+     * @param networkGraph the network graph of the system
+     * @param chainConsumer receives each service chain as soon as it is found
+     * @return the anti-patterns detected
+     */
+    public AntipatternReport detect(MicroserviceSystem system, NetworkGraph networkGraph, Consumer<ServiceChain> chainConsumer) {
+        // Index the graph once for all graph based detectors
+        CompactGraph graph = new CompactGraph(networkGraph);
+
+        return new AntipatternReport(
+                greedyService.getGreedyMicroservices(graph),
+                hubLikeService.getHubLikeMicroservice(graph),
+                serviceChainService.findServiceChains(graph, chainConsumer),
+                serviceChainService.findLongestChain(graph),
+                wrongCutsService.identifyAndReportWrongCuts(graph),
+                elementaryCycles ? cyclicDependencyService.findElementaryCycles(graph) : cyclicDependencyService.findStronglyConnectedComponents(graph),
+                noHealthcheckService.checkHealthcheck(healthcheckPath),
+                wobblyService.checkForWobblyServiceInteractions(system),
+                noApiGatewayService.checkforApiGateway(apiGatewayPath));
+    }
+
+    /**
+     * This method refreshes the anti-patterns found in the classes of the system, keeping
+     * the graph based results of a report whose network graph has not changed
+     *
+     * @param report the report to update in place
+     * @param system the microservice system to analyze
+     */
+    public void updateSystemAntipatterns(AntipatternReport report, MicroserviceSystem system) {
+        report.setWobblyServiceInteractions(wobblyService.checkForWobblyServiceInteractions(system));
+    }
+}
@@ -1,6 +1,6 @@
 package edu.university.ecs.lab.detection.antipatterns.services;
 
-import edu.university.ecs.lab.common.models.Edge;
+import edu.university.ecs.lab.common.models.CompactGraph;
 import edu.university.ecs.lab.common.models.NetworkGraph;
 import edu.university.ecs.lab.detection.antipatterns.models.CyclicDependency;
 
@@ -8,26 +8,339 @@ import java.util.*;
 
 /**
  * Service class for detecting cyclic dependencies in a network graph.
+ * <p>
+ * Cyclic dependencies are reported either as strongly connected components, found with an
+ * iterative Tarjan search in O(N + E), or as elementary cycles enumerated with Johnson's
+ * algorithm up to a configurable number of cycles.
  */
 public class CyclicDependencyService {
+    /**
+     * Default bound on the number of elementary cycles enumerated
+     */
+    public static final int DEFAULT_MAX_CYCLES = 10000;
+
+    /**
+     * Maximum number of elementary cycles enumerated by {@link #findElementaryCycles(CompactGraph)}
+     */
+    private final int maxCycles;
+
+    public CyclicDependencyService() {
+        this(DEFAULT_MAX_CYCLES);
+    }
+
+    /**
+     * @param maxCycles maximum number of elementary cycles to enumerate
+     */
+    public CyclicDependencyService(int maxCycles) {
+        this.maxCycles = maxCycles;
+    }
+
+    /**
+     * Finds all strongly connected components of the given compact graph that contain a cycle,
+     * that is components of more than one node or a single node calling itself. Each component
+     * is reported as one cyclic dependency listing its members in node order.
+     *
+     * @param graph the compact graph to analyze
+     * @return a list of cyclic dependencies, one per cyclic component
+     */
+    public List<CyclicDependency> findStronglyConnectedComponents(CompactGraph graph) {
+        int[] componentOf = new int[graph.size()];
+        int components = tarjan(graph.getOutOffsets(), graph.getOutTargets(), 0, componentOf);
+
+        List<List<String>> members = new ArrayList<>(components);
+        for (int c = 0; c < components; c++) {
+            members.add(new ArrayList<>());
+        }
+        boolean[] cyclic = new boolean[components];
+        for (int node = 0; node < graph.size(); node++) {
+            List<String> component = members.get(componentOf[node]);
+            component.add(graph.getName(node));
+            cyclic[componentOf[node]] |= component.size() > 1 || hasSelfLoop(graph.getOutOffsets(), graph.getOutTargets(), node);
+        }
+
+        List<CyclicDependency> cyclicDependencies = new ArrayList<>();
+        for (int c = 0; c < components; c++) {
+            if (cyclic[c]) {
+                cyclicDependencies.add(new CyclicDependency(members.get(c)));
+            }
+        }
+
+        return cyclicDependencies;
+    }
+
+    /**
+     * Enumerates the elementary cycles of the given compact graph with Johnson's algorithm,
+     * stopping once the configured maximum number of cycles has been found. Each cycle lists
+     * its nodes in call order and repeats the first node at the end.
+     *
+     * @param graph the compact graph to analyze
+     * @return a list of cyclic dependencies, one per elementary cycle
+     */
+    public List<CyclicDependency> findElementaryCycles(CompactGraph graph) {
+        List<CyclicDependency> cycles = new ArrayList<>();
+        int n = graph.size();
+
+        // Parallel edges (distinct endpoints between the same services) would repeat cycles
+        int[] offsets = new int[n + 1];
+        int[] targets = distinctSuccessors(graph, offsets);
+
+        int[] componentOf = new int[n];
+        boolean[] blocked = new boolean[n];
+        List<Set<Integer>> blockedBy = new ArrayList<>(n);
+        for (int node = 0; node < n; node++) {
+            blockedBy.add(new LinkedHashSet<>());
+        }
+
+        int[] path = new int[n];
+        int[] cursor = new int[n];
+        boolean[] found = new boolean[n];
+
+        int[] componentSize = new int[n];
+        int start = 0;
+        while (start < n && cycles.size() < maxCycles) {
+            // Find the least node >= start in a cyclic component of the subgraph of nodes >= start,
+            // every node skipped on the way lies on no cycle of the remaining subgraph
+            int components = tarjan(offsets, targets, start, componentOf);
+            Arrays.fill(componentSize, 0, components, 0);
+            for (int node = start; node < n; node++) {
+                componentSize[componentOf[node]]++;
+            }
+            while (start < n && componentSize[componentOf[start]] == 1 && !hasSelfLoop(offsets, targets, start)) {
+                start++;
+            }
+            if (start == n) {
+                break;
+            }
+            int component = componentOf[start];
+
+            for (int node = start; node < n; node++) {
+                blocked[node] = false;
+                blockedBy.get(node).clear();
+            }
+
+            // Iterative circuit search, path holds the current simple path from start
+            int depth = 0;
+            path[0] = start;
+            cursor[0] = offsets[start];
+            found[0] = false;
+            blocked[start] = true;
+
+            while (depth >= 0 && cycles.size() < maxCycles) {
+                int v = path[depth];
+                if (cursor[depth] < offsets[v + 1]) {
+                    int w = targets[cursor[depth]++];
+                    if (w < start || componentOf[w] != component) {
+                        continue;
+                    }
+
+                    if (w == start) {
+                        List<String> cycle = new ArrayList<>(depth + 2);
+                        for (int i = 0; i <= depth; i++) {
+                            cycle.add(graph.getName(path[i]));
+                        }
+                        cycle.add(graph.getName(start));
+                        cycles.add(new CyclicDependency(cycle));
+                        found[depth] = true;
+                    } else if (!blocked[w]) {
+                        depth++;
+                        path[depth] = w;
+                        cursor[depth] = offsets[w];
+                        found[depth] = false;
+                        blocked[w] = true;
+                    }
+                } else {
+                    if (found[depth]) {
+                        unblock(v, blocked, blockedBy);
+                    } else {
+                        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                            int w = targets[e];
+                            if (w >= start && componentOf[w] == component) {
+                                blockedBy.get(w).add(v);
+                            }
+                        }
+                    }
+
+                    boolean foundCycle = found[depth];
+                    depth--;
+                    if (depth >= 0 && foundCycle) {
+                        found[depth] = true;
+                    }
+                }
+            }
+
+            start++;
+        }
+
+        return cycles;
+    }
+
+    /**
+     * Iterative Tarjan search over the subgraph of nodes >= minNode. Components are numbered in
+     * reverse topological order, an edge between two components always leads to the lower id.
+     *
+     * @param offsets     CSR offsets of the outgoing edges
+     * @param targets     CSR targets of the outgoing edges
+     * @param minNode     the smallest node id taking part in the search
+     * @param componentOf output of the component id of each node >= minNode
+     * @return the number of components found
+     */
+    static int tarjan(int[] offsets, int[] targets, int minNode, int[] componentOf) {
+        int n = offsets.length - 1;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callNode = new int[n];
+        int[] callCursor = new int[n];
+        Arrays.fill(index, -1);
+
+        int nextIndex = 0, stackSize = 0, components = 0;
+        for (int root = minNode; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+
+            int depth = 0;
+            callNode[0] = root;
+            callCursor[0] = offsets[root];
+            index[root] = low[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                int v = callNode[depth];
+                if (callCursor[depth] < offsets[v + 1]) {
+                    int w = targets[callCursor[depth]++];
+                    if (w < minNode) {
+                        continue;
+                    }
+
+                    if (index[w] == -1) {
+                        depth++;
+                        callNode[depth] = w;
+                        callCursor[depth] = offsets[w];
+                        index[w] = low[w] = nextIndex++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    // v is the root of a component, pop its members
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            onStack[w] = false;
+                            componentOf[w] = components;
+                        } while (w != v);
+                        components++;
+                    }
+
+                    depth--;
+                    if (depth >= 0) {
+                        int parent = callNode[depth];
+                        low[parent] = Math.min(low[parent], low[v]);
+                    }
+                }
+            }
+        }
+
+        return components;
+    }
+
+    /**
+     * Copy the outgoing edges of each node without repeated targets into CSR arrays
+     *
+     * @param graph   the compact graph
+     * @param offsets output of the CSR offsets, of length size() + 1
+     * @return the CSR targets
+     */
+    static int[] distinctSuccessors(CompactGraph graph, int[] offsets) {
+        int[] outOffsets = graph.getOutOffsets();
+        int[] outTargets = graph.getOutTargets();
+        int[] targets = new int[outTargets.length];
+        int[] seenBy = new int[graph.size()];
+        Arrays.fill(seenBy, -1);
+
+        int size = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            offsets[v] = size;
+            for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                if (seenBy[outTargets[e]] != v) {
+                    seenBy[outTargets[e]] = v;
+                    targets[size++] = outTargets[e];
+                }
+            }
+        }
+        offsets[graph.size()] = size;
+
+        return Arrays.copyOf(targets, size);
+    }
+
+    private static boolean hasSelfLoop(int[] offsets, int[] targets, int node) {
+        for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+            if (targets[e] == node) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Unblock a node and, transitively, every node waiting on it
+     */
+    private static void unblock(int node, boolean[] blocked, List<Set<Integer>> blockedBy) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(node);
+
+        while (!pending.isEmpty()) {
+            int u = pending.pop();
+            blocked[u] = false;
+            for (int w : blockedBy.get(u)) {
+                if (blocked[w]) {
+                    pending.push(w);
+                }
+            }
+            blockedBy.get(u).clear();
+        }
+    }
 
     /**
      * Finds all cyclic dependencies in the given network graph.
      * 
      * @param graph the network graph to analyze
      * @return a list of cyclic dependencies found
+     * @deprecated reports only the cycles closed along the DFS tree, which depend on iteration
+     * order, use {@link #findStronglyConnectedComponents(CompactGraph)} or
+     * {@link #findElementaryCycles(CompactGraph)} instead
      */
+    @Deprecated
     public List<CyclicDependency> findCyclicDependencies(NetworkGraph graph) {
+        return findCyclicDependencies(new CompactGraph(graph));
+    }
+
+    /**
+     * Finds all cyclic dependencies in the given compact graph.
+     *
+     * @param graph the compact graph to analyze
+     * @return a list of cyclic dependencies found
+     * @deprecated reports only the cycles closed along the DFS tree, which depend on iteration
+     * order, use {@link #findStronglyConnectedComponents(CompactGraph)} or
+     * {@link #findElementaryCycles(CompactGraph)} instead
+     */
+    @Deprecated
+    public List<CyclicDependency> findCyclicDependencies(CompactGraph graph) {
         List<CyclicDependency> cyclicDependencies = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> recStack = new HashSet<>();
-        Map<String, String> parentMap = new HashMap<>();
-
-        for (String node : graph.getNodes()) {
-            if (!visited.contains(node)) {
-                if (hasCycle(node, visited, recStack, graph, parentMap, cyclicDependencies)) {
-                    // Continue searching for other cycles
-                }
+        boolean[] visited = new boolean[graph.size()];
+        boolean[] recStack = new boolean[graph.size()];
+        int[] parentMap = new int[graph.size()];
+        Arrays.fill(parentMap, -1);
+
+        for (int node = 0; node < graph.size(); node++) {
+            if (!visited[node]) {
+                hasCycle(node, visited, recStack, graph, parentMap, cyclicDependencies);
             }
         }
 
@@ -38,31 +351,31 @@ public class CyclicDependencyService {
      * Checks if there is a cycle starting from the current node.
      * 
      * @param currentNode      the current node to check
-     * @param visited          set of visited nodes
-     * @param recStack         stack of nodes in the current recursion stack
-     * @param graph            the network graph
-     * @param parentMap        map of node to its parent in the traversal
+     * @param visited          visited flag of each node
+     * @param recStack         flag of each node in the current recursion stack
+     * @param graph            the compact graph
+     * @param parentMap        parent of each node in the traversal or -1
      * @param cyclicDependencies list to store detected cyclic dependencies
      * @return true if a cycle is found, false otherwise
      */
-    private boolean hasCycle(String currentNode, Set<String> visited, Set<String> recStack, NetworkGraph graph, Map<String, String> parentMap, List<CyclicDependency> cyclicDependencies) {
-        visited.add(currentNode);
-        recStack.add(currentNode);
-
-        List<String> neighbors = getNeighbors(currentNode, graph);
-        for (String neighbor : neighbors) {
-            if (!visited.contains(neighbor)) {
-                parentMap.put(neighbor, currentNode);
-                if (hasCycle(neighbor, visited, recStack, graph, parentMap, cyclicDependencies)) {
-                    // Continue searching for other cycles
-                }
-            } else if (recStack.contains(neighbor)) {
-                List<String> cyclePath = reconstructCyclePath(neighbor, currentNode, parentMap);
-                cyclicDependencies.add(new CyclicDependency(new ArrayList<>(cyclePath)));
+    private boolean hasCycle(int currentNode, boolean[] visited, boolean[] recStack, CompactGraph graph, int[] parentMap, List<CyclicDependency> cyclicDependencies) {
+        visited[currentNode] = true;
+        recStack[currentNode] = true;
+
+        int[] outOffsets = graph.getOutOffsets();
+        int[] outTargets = graph.getOutTargets();
+        for (int e = outOffsets[currentNode]; e < outOffsets[currentNode + 1]; e++) {
+            int neighbor = outTargets[e];
+            if (!visited[neighbor]) {
+                parentMap[neighbor] = currentNode;
+                hasCycle(neighbor, visited, recStack, graph, parentMap, cyclicDependencies);
+            } else if (recStack[neighbor]) {
+                List<String> cyclePath = reconstructCyclePath(neighbor, currentNode, parentMap, graph);
+                cyclicDependencies.add(new CyclicDependency(cyclePath));
             }
         }
 
-        recStack.remove(currentNode);
+        recStack[currentNode] = false;
 
         return false;
     }
@@ -72,37 +385,21 @@ public class CyclicDependencyService {
      * 
      * @param startNode  the start node of the cycle
      * @param currentNode the current node to reconstruct path to
-     * @param parentMap  map of node to its parent in the traversal
+     * @param parentMap  parent of each node in the traversal or -1
+     * @param graph      the compact graph holding the node names
      * @return the list of nodes representing the cycle path
      */
-    private List<String> reconstructCyclePath(String startNode, String currentNode, Map<String, String> parentMap) {
+    private List<String> reconstructCyclePath(int startNode, int currentNode, int[] parentMap, CompactGraph graph) {
         List<String> fullCyclePath = new ArrayList<>();
-        String node = currentNode;
+        int node = currentNode;
 
-        fullCyclePath.add(startNode);
-        while (node != null && !node.equals(startNode)) {
-            fullCyclePath.add(node);
-            node = parentMap.get(node);
+        fullCyclePath.add(graph.getName(startNode));
+        while (node != -1 && node != startNode) {
+            fullCyclePath.add(graph.getName(node));
+            node = parentMap[node];
         }
-        fullCyclePath.add(startNode); 
+        fullCyclePath.add(graph.getName(startNode));
 
         return fullCyclePath;
     }
-
-    /**
-     * Retrieves the neighbors of the currentNode from the graph.
-     * 
-     * @param currentNode the node whose neighbors are to be retrieved
-     * @param graph       the network graph
-     * @return the list of neighbors of the currentNode
-     */
-    private List<String> getNeighbors(String currentNode, NetworkGraph graph) {
-        List<String> neighbors = new ArrayList<>();
-        for (Edge edge : graph.getEdges()) {
-            if (edge.getSource().equals(currentNode)) {
-                neighbors.add(edge.getTarget());
-            }
-        }
-        return neighbors;
-    }
 }
@@ -1,6 +1,6 @@
 package edu.university.ecs.lab.detection.antipatterns.services;
 
-import edu.university.ecs.lab.common.models.Edge;
+import edu.university.ecs.lab.common.models.CompactGraph;
 import edu.university.ecs.lab.common.models.NetworkGraph;
 import edu.university.ecs.lab.detection.antipatterns.models.GreedyMicroservice;
 
@@ -25,17 +25,21 @@ public class GreedyService {
      * @return a GreedyMicroservice object containing identified greedy microservices
      */
     public GreedyMicroservice getGreedyMicroservices(NetworkGraph graph) {
+        return getGreedyMicroservices(new CompactGraph(graph));
+    }
+
+    /**
+     * Retrieves microservices identified as greedy based on REST call threshold.
+     *
+     * @param graph the compact graph to analyze
+     * @return a GreedyMicroservice object containing identified greedy microservices
+     */
+    public GreedyMicroservice getGreedyMicroservices(CompactGraph graph) {
         Set<String> getGreedyMicroservices = new HashSet<>();
 
-        for (String microserviceName : graph.getNodes()) {
-            int restCallCount = 0;
-            for (Edge edge : graph.getEdges()) {
-                if (microserviceName.equals(edge.getSource())) {
-                    restCallCount++;
-                }
-            }
-            if (restCallCount >= RESTCALL_THRESHOLD) {
-                getGreedyMicroservices.add(microserviceName);
+        for (int node = 0; node < graph.size(); node++) {
+            if (graph.outDegree(node) >= RESTCALL_THRESHOLD) {
+                getGreedyMicroservices.add(graph.getName(node));
             }
         }
 
@@ -1,6 +1,6 @@
 package edu.university.ecs.lab.detection.antipatterns.services;
 
-import edu.university.ecs.lab.common.models.Edge;
+import edu.university.ecs.lab.common.models.CompactGraph;
 import edu.university.ecs.lab.common.models.NetworkGraph;
 import edu.university.ecs.lab.detection.antipatterns.models.HubLikeMicroservice;
 
@@ -23,17 +23,21 @@ public class HubLikeService {
      * @return a HubLikeMicroservice object containing identified hub-like microservices
      */
     public HubLikeMicroservice getHubLikeMicroservice(NetworkGraph graph) {
+        return getHubLikeMicroservice(new CompactGraph(graph));
+    }
+
+    /**
+     * Retrieves microservices identified as hub-like based on REST call threshold.
+     *
+     * @param graph the compact graph to analyze
+     * @return a HubLikeMicroservice object containing identified hub-like microservices
+     */
+    public HubLikeMicroservice getHubLikeMicroservice(CompactGraph graph) {
         Set<String> getHubMircoservice = new HashSet<>();
 
-        for (String microserviceName : graph.getNodes()) {
-            int restCallCount = 0;
-            for (Edge edge : graph.getEdges()) {
-                if (microserviceName.equals(edge.getTarget())) {
-                    restCallCount++;
-                }
-            }
-            if (restCallCount >= RESTCALL_THRESHOLD) {
-                getHubMircoservice.add(microserviceName);
+        for (int node = 0; node < graph.size(); node++) {
+            if (graph.inDegree(node) >= RESTCALL_THRESHOLD) {
+                getHubMircoservice.add(graph.getName(node));
             }
         }
 
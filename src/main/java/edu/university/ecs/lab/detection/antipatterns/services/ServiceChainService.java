@@ -1,29 +1,246 @@
 package edu.university.ecs.lab.detection.antipatterns.services;
 
-import edu.university.ecs.lab.common.models.Edge;
+import edu.university.ecs.lab.common.models.CompactGraph;
 import edu.university.ecs.lab.common.models.NetworkGraph;
 import edu.university.ecs.lab.detection.antipatterns.models.ServiceChain;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Service class for detecting and managing service chains in a network graph.
+ * <p>
+ * Chains are paths of services that never return to a strongly connected component they have
+ * left, found by dynamic programming over the condensation of the graph. The length of the
+ * longest chain starting at every service is computed once in O(N + E), which bounds the search
+ * for chains over the length threshold to branches that can still reach it.
  */
 public class ServiceChainService {
+    /**
+     * Default minimum number of services in a reported chain
+     */
+    public static final int DEFAULT_THRESHOLD = 2;
+
+    /**
+     * Default maximum number of services in a reported chain
+     */
+    public static final int DEFAULT_MAX_DEPTH = 64;
+
+    /**
+     * Default maximum number of reported chains
+     */
+    public static final int DEFAULT_MAX_RESULTS = 10000;
+
+    /**
+     * Minimum number of services in a reported chain
+     */
+    private final int threshold;
+
+    /**
+     * Maximum number of services in a reported chain, longer chains are cut at this depth
+     */
+    private final int maxDepth;
+
+    /**
+     * Maximum number of reported chains
+     */
+    private final int maxResults;
+
+    public ServiceChainService() {
+        this(DEFAULT_THRESHOLD, DEFAULT_MAX_DEPTH, DEFAULT_MAX_RESULTS);
+    }
+
+    /**
+     * @param threshold  minimum number of services in a reported chain
+     * @param maxDepth   maximum number of services in a reported chain
+     * @param maxResults maximum number of reported chains
+     */
+    public ServiceChainService(int threshold, int maxDepth, int maxResults) {
+        this.threshold = threshold;
+        this.maxDepth = maxDepth;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Finds the longest service chain of the given compact graph.
+     *
+     * @param graph the compact graph to analyze
+     * @return the longest chain or null if no chain links two services
+     */
+    public ServiceChain findLongestChain(CompactGraph graph) {
+        int[] componentOf = new int[graph.size()];
+        int[] next = new int[graph.size()];
+        int[] longest = longestChains(graph, componentOf, next);
+
+        int start = -1;
+        for (int node = 0; node < graph.size(); node++) {
+            if (start == -1 || longest[node] > longest[start]) {
+                start = node;
+            }
+        }
+        if (start == -1 || longest[start] < 2) {
+            return null;
+        }
+
+        List<String> chain = new ArrayList<>(longest[start]);
+        for (int node = start; node != -1; node = next[node]) {
+            chain.add(graph.getName(node));
+        }
+
+        return new ServiceChain(chain);
+    }
+
+    /**
+     * Finds the maximal service chains of the given compact graph holding at least the threshold
+     * number of services and passes each one to the consumer as soon as it is found, stopping
+     * after the maximum number of results.
+     *
+     * @param graph    the compact graph to analyze
+     * @param consumer the consumer receiving each chain
+     * @return the number of chains found
+     */
+    public int findServiceChains(CompactGraph graph, Consumer<ServiceChain> consumer) {
+        int n = graph.size();
+        int[] componentOf = new int[n];
+        int[] longest = longestChains(graph, componentOf, new int[n]);
+
+        // Parallel edges (several calls between the same services) would repeat chains
+        int[] outOffsets = new int[n + 1];
+        int[] outTargets = CyclicDependencyService.distinctSuccessors(graph, outOffsets);
+
+        // Chains start at services not reached from another component
+        boolean[] reached = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                if (componentOf[outTargets[e]] != componentOf[v]) {
+                    reached[outTargets[e]] = true;
+                }
+            }
+        }
+
+        int depthLimit = Math.min(maxDepth, n);
+        int[] path = new int[depthLimit];
+        int[] cursor = new int[depthLimit];
+        boolean[] extended = new boolean[depthLimit];
+        int results = 0;
+
+        for (int start = 0; start < n && results < maxResults; start++) {
+            if (reached[start] || Math.min(longest[start], depthLimit) < threshold) {
+                continue;
+            }
+
+            // Iterative depth first search only entering services whose longest chain can still
+            // complete the current path to the threshold
+            int depth = 0;
+            path[0] = start;
+            cursor[0] = outOffsets[start];
+            extended[0] = false;
+
+            while (depth >= 0 && results < maxResults) {
+                int v = path[depth];
+                if (depth + 1 < depthLimit && cursor[depth] < outOffsets[v + 1]) {
+                    int w = outTargets[cursor[depth]++];
+                    if (componentOf[w] != componentOf[v] && Math.min(depth + 1 + longest[w], depthLimit) >= threshold) {
+                        extended[depth] = true;
+                        depth++;
+                        path[depth] = w;
+                        cursor[depth] = outOffsets[w];
+                        extended[depth] = false;
+                    }
+                } else {
+                    if (!extended[depth] && depth + 1 >= threshold) {
+                        List<String> chain = new ArrayList<>(depth + 1);
+                        for (int i = 0; i <= depth; i++) {
+                            chain.add(graph.getName(path[i]));
+                        }
+                        consumer.accept(new ServiceChain(chain));
+                        results++;
+                    }
+                    depth--;
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Compute the number of services on the longest chain starting at each service. Components
+     * are visited in increasing id order, which Tarjan assigns in reverse topological order, so
+     * every edge leaving a component leads to services that are already computed.
+     *
+     * @param graph       the compact graph
+     * @param componentOf output of the strongly connected component of each service
+     * @param next        output of the next service on the longest chain or -1
+     * @return the longest chain length of each service
+     */
+    private static int[] longestChains(CompactGraph graph, int[] componentOf, int[] next) {
+        int n = graph.size();
+        int[] outOffsets = graph.getOutOffsets();
+        int[] outTargets = graph.getOutTargets();
+        int components = CyclicDependencyService.tarjan(outOffsets, outTargets, 0, componentOf);
+
+        // Bucket services by component
+        int[] componentOffsets = new int[components + 1];
+        for (int v = 0; v < n; v++) {
+            componentOffsets[componentOf[v] + 1]++;
+        }
+        for (int c = 0; c < components; c++) {
+            componentOffsets[c + 1] += componentOffsets[c];
+        }
+        int[] order = new int[n];
+        int[] fill = Arrays.copyOf(componentOffsets, components);
+        for (int v = 0; v < n; v++) {
+            order[fill[componentOf[v]]++] = v;
+        }
+
+        int[] longest = new int[n];
+        for (int v : order) {
+            longest[v] = 1;
+            next[v] = -1;
+            for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++) {
+                int w = outTargets[e];
+                if (componentOf[w] != componentOf[v] && longest[w] + 1 > longest[v]) {
+                    longest[v] = longest[w] + 1;
+                    next[v] = w;
+                }
+            }
+        }
+
+        return longest;
+    }
 
     /**
      * Retrieves all service chains from the given network graph.
      *
      * @param graph the network graph to analyze
      * @return a list of ServiceChain objects representing detected service chains
+     * @deprecated enumerates every root to sink path from every service which grows exponentially
+     * on dense graphs, use {@link #findServiceChains(CompactGraph, Consumer)} or
+     * {@link #findLongestChain(CompactGraph)} instead
      */
+    @Deprecated
     public List<ServiceChain> getServiceChains(NetworkGraph graph) {
+        return getServiceChains(new CompactGraph(graph));
+    }
+
+    /**
+     * Retrieves all service chains from the given compact graph.
+     *
+     * @param graph the compact graph to analyze
+     * @return a list of ServiceChain objects representing detected service chains
+     * @deprecated enumerates every root to sink path from every service which grows exponentially
+     * on dense graphs, use {@link #findServiceChains(CompactGraph, Consumer)} or
+     * {@link #findLongestChain(CompactGraph)} instead
+     */
+    @Deprecated
+    public List<ServiceChain> getServiceChains(CompactGraph graph) {
         List<ServiceChain> allChains = new ArrayList<>();
-        Map<String, List<String>> adjacencyList = buildAdjacencyList(graph);
+        boolean[] visited = new boolean[graph.size()];
+        int[] currentPath = new int[graph.size()];
 
-        for (String node : graph.getNodes()) {
-            Set<String> visited = new HashSet<>();
-            dfs(node, new ArrayList<>(), allChains, adjacencyList, visited);
+        for (int node = 0; node < graph.size(); node++) {
+            dfs(node, currentPath, 0, allChains, graph, visited);
         }
 
         // Filter out single-service chains
@@ -32,51 +249,37 @@ public class ServiceChainService {
         return allChains;
     }
 
-    /**
-     * Builds an adjacency list representation of the network graph.
-     *
-     * @param graph the network graph
-     * @return adjacency list mapping each node to its list of neighboring nodes
-     */
-    private Map<String, List<String>> buildAdjacencyList(NetworkGraph graph) {
-        Map<String, List<String>> adjacencyList = new HashMap<>();
-        for (String node : graph.getNodes()) {
-            adjacencyList.put(node, new ArrayList<>());
-        }
-        for (Edge edge : graph.getEdges()) {
-            adjacencyList.get(edge.getSource()).add(edge.getTarget());
-        }
-        return adjacencyList;
-    }
-
     /**
      * Depth-first search (DFS) to explore and detect service chains starting from currentNode.
      *
      * @param currentNode the current node being visited
      * @param currentPath the current path of nodes being explored
+     * @param depth       the number of nodes on the current path before currentNode
      * @param allChains   list to store detected service chains
-     * @param adjacencyList adjacency list representation of the network graph
-     * @param visited     set of visited nodes
+     * @param graph       the compact graph
+     * @param visited     visited flag of each node on the current path
      */
-    private void dfs(String currentNode, List<String> currentPath, List<ServiceChain> allChains, Map<String, List<String>> adjacencyList, Set<String> visited) {
-        visited.add(currentNode);
-        currentPath.add(currentNode);
-
-        List<String> neighbors = adjacencyList.get(currentNode);
-        if (neighbors != null) {
-            for (String neighbor : neighbors) {
-                if (!visited.contains(neighbor)) {
-                    dfs(neighbor, currentPath, allChains, adjacencyList, visited);
-                }
+    private void dfs(int currentNode, int[] currentPath, int depth, List<ServiceChain> allChains, CompactGraph graph, boolean[] visited) {
+        visited[currentNode] = true;
+        currentPath[depth] = currentNode;
+
+        int[] outOffsets = graph.getOutOffsets();
+        int[] outTargets = graph.getOutTargets();
+        for (int e = outOffsets[currentNode]; e < outOffsets[currentNode + 1]; e++) {
+            if (!visited[outTargets[e]]) {
+                dfs(outTargets[e], currentPath, depth + 1, allChains, graph, visited);
             }
         }
 
-        if (neighbors == null || neighbors.isEmpty()) {
-            allChains.add(new ServiceChain(new ArrayList<>(currentPath)));
+        if (graph.outDegree(currentNode) == 0) {
+            List<String> chain = new ArrayList<>(depth + 1);
+            for (int i = 0; i <= depth; i++) {
+                chain.add(graph.getName(currentPath[i]));
+            }
+            allChains.add(new ServiceChain(chain));
         }
 
         // Backtrack
-        currentPath.remove(currentPath.size() - 1);
-        visited.remove(currentNode);
+        visited[currentNode] = false;
     }
 }
@@ -1,6 +1,6 @@
 package edu.university.ecs.lab.detection.antipatterns.services;
 
-import edu.university.ecs.lab.common.models.Edge;
+import edu.university.ecs.lab.common.models.CompactGraph;
 import edu.university.ecs.lab.common.models.NetworkGraph;
 import edu.university.ecs.lab.detection.antipatterns.models.WrongCuts;
 
@@ -18,6 +18,16 @@ public class WrongCutsService {
      * @return A list of {@link WrongCuts} objects, each representing a cluster of wrongly interconnected services.
      */
     public List<WrongCuts> identifyAndReportWrongCuts(NetworkGraph graph) {
+        return identifyAndReportWrongCuts(new CompactGraph(graph));
+    }
+
+    /**
+     * Identifies and reports clusters of wrongly interconnected services based on the provided compact graph.
+     *
+     * @param graph The compact graph representing microservices and their dependencies.
+     * @return A list of {@link WrongCuts} objects, each representing a cluster of wrongly interconnected services.
+     */
+    public List<WrongCuts> identifyAndReportWrongCuts(CompactGraph graph) {
         List<Set<String>> wrongCutsList = detectWrongCuts(graph);
         List<WrongCuts> wrongCutsObjects = new ArrayList<>();
 
@@ -37,56 +47,47 @@ public class WrongCutsService {
      * @return A list of sets, each containing services that are wrongly interconnected (forming a cluster).
      */
     public List<Set<String>> detectWrongCuts(NetworkGraph graph) {
-        Map<String, List<String>> adjacencyList = buildAdjacencyList(graph);
-        Set<String> visited = new HashSet<>();
-        List<Set<String>> wrongCuts = new ArrayList<>();
-
-        for (String node : graph.getNodes()) {
-            if (!visited.contains(node)) {
-                Set<String> cluster = new HashSet<>();
-                dfs(node, adjacencyList, visited, cluster);
-                wrongCuts.add(cluster);
-            }
-        }
-
-        return wrongCuts;
+        return detectWrongCuts(new CompactGraph(graph));
     }
 
     /**
-     * Builds an adjacency list representation of the network graph.
+     * Detects all clusters of wrongly interconnected services in the given compact graph.
      *
-     * @param graph The network graph representing microservices and their dependencies.
-     * @return A map where each key is a service and its value is a list of services it directly depends on.
+     * @param graph The compact graph representing microservices and their dependencies.
+     * @return A list of sets, each containing services that are wrongly interconnected (forming a cluster).
      */
-    private Map<String, List<String>> buildAdjacencyList(NetworkGraph graph) {
-        Map<String, List<String>> adjacencyList = new HashMap<>();
-
-        for (String node : graph.getNodes()) {
-            adjacencyList.put(node, new ArrayList<>());
-        }
+    public List<Set<String>> detectWrongCuts(CompactGraph graph) {
+        boolean[] visited = new boolean[graph.size()];
+        List<Set<String>> wrongCuts = new ArrayList<>();
 
-        for (Edge edge : graph.getEdges()) {
-            adjacencyList.get(edge.getSource()).add(edge.getTarget());
+        for (int node = 0; node < graph.size(); node++) {
+            if (!visited[node]) {
+                Set<String> cluster = new HashSet<>();
+                dfs(node, graph, visited, cluster);
+                wrongCuts.add(cluster);
+            }
         }
 
-        return adjacencyList;
+        return wrongCuts;
     }
 
     /**
      * Performs Depth-First Search (DFS) to traverse and collect all nodes in the current cluster of wrong cuts.
      *
      * @param currentNode   The current node being visited.
-     * @param adjacencyList The adjacency list representing the network graph.
-     * @param visited       Set of visited nodes to avoid revisiting.
+     * @param graph         The compact graph representing the network graph.
+     * @param visited       Visited flag of each node to avoid revisiting.
      * @param cluster       Set to collect all nodes belonging to the current cluster of wrong cuts.
      */
-    private void dfs(String currentNode, Map<String, List<String>> adjacencyList, Set<String> visited, Set<String> cluster) {
-        visited.add(currentNode);
-        cluster.add(currentNode);
+    private void dfs(int currentNode, CompactGraph graph, boolean[] visited, Set<String> cluster) {
+        visited[currentNode] = true;
+        cluster.add(graph.getName(currentNode));
 
-        for (String neighbor : adjacencyList.getOrDefault(currentNode, new ArrayList<>())) {
-            if (!visited.contains(neighbor)) {
-                dfs(neighbor, adjacencyList, visited, cluster);
+        int[] outOffsets = graph.getOutOffsets();
+        int[] outTargets = graph.getOutTargets();
+        for (int e = outOffsets[currentNode]; e < outOffsets[currentNode + 1]; e++) {
+            if (!visited[outTargets[e]]) {
+                dfs(outTargets[e], graph, visited, cluster);
             }
         }
     }
@@ -4,6 +4,8 @@
  * generating reports or performing corrective actions.
  * <p>
  * Services:
+ * - {@link edu.university.ecs.lab.detection.antipatterns.services.AntipatternDetectionService}: Service running all of
+ *   the detectors below on a microservice system and its network graph.
  * - {@link edu.university.ecs.lab.detection.antipatterns.services.CyclicDependencyService}: Service for detecting
  *   cyclic dependencies within a microservice network graph.
  * - {@link edu.university.ecs.lab.detection.antipatterns.services.GreedyService}: Service for identifying and managing
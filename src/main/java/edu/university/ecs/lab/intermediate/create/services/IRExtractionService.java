@@ -7,15 +7,23 @@ import edu.university.ecs.lab.common.models.JClass;
 import edu.university.ecs.lab.common.models.Microservice;
 import edu.university.ecs.lab.common.models.MicroserviceSystem;
 import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
 import edu.university.ecs.lab.common.utils.FileUtils;
 import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.common.utils.PathGlobFilter;
 import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
 
+import org.eclipse.jgit.lib.ObjectId;
+
 import java.io.File;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 /**
@@ -23,6 +31,11 @@ import java.util.Set;
  * are allowed to exit the program with an error code if an error occurs.
  */
 public class IRExtractionService {
+    /**
+     * Parallelism level at or below which extraction runs sequentially
+     */
+    public static final int SEQUENTIAL = 1;
+
     /**
      * Service to handle cloning from git
      */
@@ -30,18 +43,70 @@ public class IRExtractionService {
 
     private final Config config;
 
+    /**
+     * Number of worker threads used for scanning, {@link #SEQUENTIAL} disables the pool
+     */
+    private final int parallelism;
+
+    /**
+     * Cache of previously parsed files, null when caching is disabled
+     */
+    private final ParseCacheService parseCache;
+
+    /**
+     * Configured include and exclude paths, applied when scanning the working tree
+     */
+    private final PathGlobFilter pathFilter;
+
     /**
      * @param configPath path to configuration file
      */
     public IRExtractionService(String configPath) {
         gitService = new GitService(configPath);
         config = ConfigUtil.readConfig(configPath);
+        parallelism = SEQUENTIAL;
+        parseCache = null;
+        pathFilter = new PathGlobFilter(config.getIncludePaths(), config.getExcludePaths());
     }
 
     // TODO REMOVE FOR TESTING ONLY
     public IRExtractionService(Config config) {
-        gitService = new GitService(config);
+        this(config, SEQUENTIAL);
+    }
+
+    /**
+     * @param config the configuration object
+     * @param parallelism number of worker threads used to scan microservices and files,
+     *                    values of {@link #SEQUENTIAL} or less scan on the calling thread
+     */
+    public IRExtractionService(Config config, int parallelism) {
+        this(config, parallelism, null);
+    }
+
+    /**
+     * @param config the configuration object
+     * @param parallelism number of worker threads used to scan microservices and files,
+     *                    values of {@link #SEQUENTIAL} or less scan on the calling thread
+     * @param parseCache cache of parsed files to consult before parsing, may be null
+     */
+    public IRExtractionService(Config config, int parallelism, ParseCacheService parseCache) {
+        this(config, new GitService(config), parallelism, parseCache);
+    }
+
+    /**
+     * @param config the configuration object
+     * @param gitService the service of the local clone, may be shared between extractions, or null
+     *                   when only {@link #scanWorkingTree()} is used so git is never touched
+     * @param parallelism number of worker threads used to scan microservices and files,
+     *                    values of {@link #SEQUENTIAL} or less scan on the calling thread
+     * @param parseCache cache of parsed files to consult before parsing, may be null
+     */
+    public IRExtractionService(Config config, GitService gitService, int parallelism, ParseCacheService parseCache) {
+        this.gitService = gitService;
         this.config = config;
+        this.parallelism = parallelism;
+        this.parseCache = parseCache;
+        this.pathFilter = new PathGlobFilter(config.getIncludePaths(), config.getExcludePaths());
     }
 
     /**
@@ -59,9 +124,171 @@ public class IRExtractionService {
         // Scan through each endpoint to update rest call destinations
 //    updateCallDestinations(msDataMap);
 
+        if (parseCache != null) {
+            System.out.println(parseCache.getStatistics());
+        }
+        System.out.println(SourceToObjectUtils.getPreScanStatistics());
+
         //  Write each service and endpoints to IR
-        writeToFile(microservices, fileName);
+        writeToFile(microservices, config.getBaseCommit(), fileName);
+
+    }
+
+    /**
+     * Intermediate extraction runner reading the sources of commitID straight from the
+     * object database, generates IR without checking out the commit and writes to file.
+     * The working tree is left untouched so several commits may be extracted at once.
+     *
+     * @param commitID the commit to extract
+     * @param fileName the output file name
+     */
+    public void generateIR(String commitID, String fileName) {
+        MicroserviceSystem microserviceSystem = extractIR(commitID);
+
+        JsonReadWriteUtils.writeToJSON("./output/" + fileName, microserviceSystem, true);
+
+        System.out.println("Successfully wrote rest extraction to: \"" + fileName + "\"");
+    }
+
+    /**
+     * Extract the intermediate representation of a commit into memory, reading its
+     * files straight from the object database
+     *
+     * @param commitID the commit to extract
+     * @return the microservice system of the commit
+     */
+    public MicroserviceSystem extractIR(String commitID) {
+        Set<Microservice> microservices = scanCommit(commitID);
+
+        if (microservices.isEmpty()) {
+            System.out.println("No microservices found");
+        }
 
+        if (parseCache != null) {
+            System.out.println(parseCache.getStatistics());
+        }
+        System.out.println(SourceToObjectUtils.getPreScanStatistics());
+
+        return new MicroserviceSystem(config.getSystemName(), commitID, microservices, new HashSet<>());
+    }
+
+    /**
+     * Scan the tree of a commit and extract endpoints/calls of each microservice
+     * without checking the commit out. Microservice roots are found like
+     * {@link #findRootDirectories(String)} finds them in the working tree.
+     *
+     * @param commitID the commit to scan
+     * @return the set of microservices present at the commit
+     */
+    public Set<Microservice> scanCommit(String commitID) {
+        Map<String, ObjectId> treeFiles = gitService.getTreeFiles(commitID, PathGlobFilter.createSourceFilter(config));
+
+        // Any directory holding a pom.xml (other than the repository root) may be a microservice
+        Set<String> pomDirectories = new HashSet<>();
+        for (String path : treeFiles.keySet()) {
+            int separatorNdx = path.lastIndexOf(FileUtils.GIT_SEPARATOR);
+            if (path.endsWith(FileUtils.GIT_SEPARATOR + "pom.xml") && separatorNdx > 0) {
+                String directory = path.substring(0, separatorNdx);
+                if (!directory.substring(directory.lastIndexOf(FileUtils.GIT_SEPARATOR) + 1).equals(config.getRepoName())) {
+                    pomDirectories.add(directory);
+                }
+            }
+        }
+
+        // Nested poms do not start a new service, only the outermost pom directories are roots
+        Map<String, List<String>> rootDirectories = new LinkedHashMap<>();
+        for (String directory : new TreeSet<>(pomDirectories)) {
+            if (directory.equals(findOutermostDirectory(directory + FileUtils.GIT_SEPARATOR, pomDirectories))) {
+                rootDirectories.put(directory, new ArrayList<>());
+            }
+        }
+
+        // Group java files under their root, files outside any microservice are not scanned
+        for (String path : treeFiles.keySet()) {
+            String rootDirectory = findOutermostDirectory(path, pomDirectories);
+            if (path.endsWith(".java") && rootDirectory != null) {
+                rootDirectories.get(rootDirectory).add(path);
+            }
+        }
+
+        Set<Microservice> microservices = new HashSet<>();
+        for (Map.Entry<String, List<String>> rootDirectory : rootDirectories.entrySet()) {
+            String rootMicroservicePath = FileUtils.gitPathToLocalPath(FileUtils.GIT_SEPARATOR + rootDirectory.getKey(), config.getRepoName());
+            Microservice microservice = new Microservice(FileUtils.getMicroserviceNameFromPath(rootMicroservicePath),
+                    FileUtils.localPathToGitPath(rootMicroservicePath, config.getRepoName()));
+
+            for (JClass jClass : parseBlobs(rootDirectory.getValue(), treeFiles)) {
+                microservice.addJClass(jClass);
+            }
+
+            microservices.add(microservice);
+        }
+
+        return microservices;
+    }
+
+    /**
+     * Find the outermost directory out of directories that contains the path
+     *
+     * @param path the git path to look up
+     * @param directories the candidate directories
+     * @return the outermost directory containing path, null if there is none
+     */
+    private static String findOutermostDirectory(String path, Set<String> directories) {
+        for (int ndx = path.indexOf(FileUtils.GIT_SEPARATOR); ndx > 0; ndx = path.indexOf(FileUtils.GIT_SEPARATOR, ndx + 1)) {
+            if (directories.contains(path.substring(0, ndx))) {
+                return path.substring(0, ndx);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse the given files from their blobs, on the worker pool if parallelism allows
+     *
+     * @param paths the git paths of the files to parse
+     * @param treeFiles map of git path to blob id
+     * @return the parsed classes in the order of paths
+     */
+    private List<JClass> parseBlobs(List<String> paths, Map<String, ObjectId> treeFiles) {
+        if (parallelism <= SEQUENTIAL) {
+            return parseBlobs(paths.stream(), treeFiles);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> parseBlobs(paths.parallelStream(), treeFiles)).get();
+        } catch (InterruptedException | ExecutionException e) {
+            Error.reportAndExit(Error.JPARSE_FAILED);
+            return null;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<JClass> parseBlobs(Stream<String> paths, Map<String, ObjectId> treeFiles) {
+        return paths.map(path -> parseBlob(FileUtils.GIT_SEPARATOR + path, treeFiles.get(path)))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Parse a file straight from its blob, answering from the parse cache
+     * when the same blob was parsed before.
+     *
+     * @param gitPath the git path of the file
+     * @param blobId the id of the file's blob
+     * @return the JClass of the file or null if it is not of a known class role
+     */
+    private JClass parseBlob(String gitPath, ObjectId blobId) {
+        File file = new File(FileUtils.gitPathToLocalPath(gitPath, config.getRepoName()));
+        if (parseCache == null) {
+            return SourceToObjectUtils.parseClass(file, gitService.readBlob(blobId), config);
+        }
+
+        return parseCache.computeIfAbsent(blobId.name(), gitPath,
+                () -> SourceToObjectUtils.parseClass(file, gitService.readBlob(blobId), config));
     }
 
     /**
@@ -70,14 +297,28 @@ public class IRExtractionService {
      * @return a map of services and their endpoints
      */
     public Set<Microservice> cloneAndScanServices() {
-        Set<Microservice> microservices = new HashSet<>();
-
         // Clone the repository present in the configuration file
         gitService.cloneRemote();
 
+        return scanWorkingTree();
+    }
+
+    /**
+     * Scan the working tree of the existing clone as it is, without cloning or fetching
+     *
+     * @return the set of microservices found in the working tree
+     */
+    public Set<Microservice> scanWorkingTree() {
+        Set<Microservice> microservices = new HashSet<>();
+
         // Start scanning from the root directory
         List<String> rootDirectories = findRootDirectories(FileUtils.getClonePath(config.getRepoName()));
 
+        if (parallelism > SEQUENTIAL) {
+            microservices.addAll(scanServicesInParallel(rootDirectories));
+            return microservices;
+        }
+
         // Scan each root directory for microservices
         for (String rootDirectory : rootDirectories) {
             Microservice microservice = recursivelyScanFiles(rootDirectory);
@@ -89,6 +330,40 @@ public class IRExtractionService {
         return microservices;
     }
 
+    /**
+     * Scan each root directory for microservices on a work-stealing pool. Results are
+     * joined in the order the sequential scan would produce them, so the returned list
+     * (and the sets built from it) are identical to a sequential run.
+     *
+     * @param rootDirectories the microservice root directories to scan
+     * @return the list of microservices in root directory order
+     */
+    private List<Microservice> scanServicesInParallel(List<String> rootDirectories) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            return pool.invoke(new RecursiveTask<>() {
+                @Override
+                protected List<Microservice> compute() {
+                    List<MicroserviceScanTask> tasks = new ArrayList<>();
+                    for (String rootDirectory : rootDirectories) {
+                        tasks.add(new MicroserviceScanTask(rootDirectory));
+                    }
+                    invokeAll(tasks);
+
+                    List<Microservice> microservices = new ArrayList<>();
+                    for (MicroserviceScanTask task : tasks) {
+                        microservices.add(task.join());
+                    }
+
+                    return microservices;
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /**
      * Recursively search for directories containing a Dockerfile.
      *
@@ -104,7 +379,8 @@ public class IRExtractionService {
             boolean containsDockerfile = false;
             if (files != null) {
                 for (File file : files) {
-                    if (file.isFile() && file.getName().equals("pom.xml") && !file.getParentFile().getName().equals(config.getRepoName())) {
+                    if (file.isFile() && file.getName().equals("pom.xml") && !file.getParentFile().getName().equals(config.getRepoName())
+                            && pathFilter.includesFile(toRepositoryPath(file))) {
                         containsDockerfile = true;
                         break;
                     }
@@ -116,7 +392,7 @@ public class IRExtractionService {
             } else {
                 // Recursively search for directories containing a Dockerfile
                 for (File file : files) {
-                    if (file.isDirectory()) {
+                    if (file.isDirectory() && pathFilter.includesDirectory(toRepositoryPath(file))) {
                         rootDirectories.addAll(findRootDirectories(file.getPath()));
                     }
                 }
@@ -130,12 +406,13 @@ public class IRExtractionService {
      * Write each service and endpoints to intermediate representation
      *
      * @param microservices a list of microservices extracted from repository
+     * @param commitID the commit the microservices were extracted from
      */
-    private void writeToFile(Set<Microservice> microservices, String fileName) {
+    private void writeToFile(Set<Microservice> microservices, String commitID, String fileName) {
 
-        MicroserviceSystem microserviceSystem = new MicroserviceSystem(config.getSystemName(), config.getBaseCommit(), microservices, new HashSet<>());
+        MicroserviceSystem microserviceSystem = new MicroserviceSystem(config.getSystemName(), commitID, microservices, new HashSet<>());
 
-        JsonReadWriteUtils.writeToJSON("./output/" + fileName, microserviceSystem.toJsonObject());
+        JsonReadWriteUtils.writeToJSON("./output/" + fileName, microserviceSystem, true);
 
         System.out.println("Successfully wrote rest extraction to: \"" + fileName + "\"");
     }
@@ -161,6 +438,17 @@ public class IRExtractionService {
      * @return model of a single service containing the extracted endpoints and dependencies
      */
     public Microservice recursivelyScanFiles(String rootMicroservicePath) {
+        return scanMicroservice(rootMicroservicePath, false);
+    }
+
+    /**
+     * Scan a microservice root directory and build its model.
+     *
+     * @param rootMicroservicePath the root directory of the microservice
+     * @param forkJoin whether to scan on the current fork/join pool instead of sequentially
+     * @return model of a single service containing the extracted endpoints and dependencies
+     */
+    private Microservice scanMicroservice(String rootMicroservicePath, boolean forkJoin) {
 //        System.out.println("Scanning repository '" + rootMicroservicePath + "'...");
 
         // Validate path exists and is a directory
@@ -174,8 +462,14 @@ public class IRExtractionService {
         Set<JClass> repositories = new HashSet<>();
         Set<JClass> entities = new HashSet<>();
 
-
-        scanDirectory(localDir, controllers, services, repositories, entities);
+        if (forkJoin) {
+            // Classes come back in directory traversal order, add them in that order
+            for (JClass jClass : new DirectoryScanTask(localDir).invoke()) {
+                sortClass(jClass, controllers, services, repositories, entities);
+            }
+        } else {
+            scanDirectory(localDir, controllers, services, repositories, entities);
+        }
 
         String id = FileUtils.getMicroserviceNameFromPath(rootMicroservicePath);
 
@@ -202,8 +496,10 @@ public class IRExtractionService {
         if (files != null) {
             for (File file : files) {
                 if (file.isDirectory()) {
-                    scanDirectory(file, controllers, services, repositories, entities);
-                } else if (file.getName().endsWith(".java")) {
+                    if (pathFilter.includesDirectory(toRepositoryPath(file))) {
+                        scanDirectory(file, controllers, services, repositories, entities);
+                    }
+                } else if (file.getName().endsWith(".java") && pathFilter.includesFile(toRepositoryPath(file))) {
                     scanFile(file, controllers, services, repositories, entities);
                 }
             }
@@ -221,13 +517,62 @@ public class IRExtractionService {
             Set<JClass> services,
             Set<JClass> repositories,
             Set<JClass> entities) {
-        JClass jClass = SourceToObjectUtils.parseClass(file, config);
+        JClass jClass = parseFile(file);
 
         if (jClass == null) {
             return;
         }
 
         //jClass.setClassPath(removeFirstTwoComponents(jClass.getClassPath()));
+        sortClass(jClass, controllers, services, repositories, entities);
+    }
+
+    /**
+     * Get the path of a file of the clone relative to the repository root, as matched by the configured globs
+     *
+     * @param file the file in the clone
+     * @return the "/" separated path without a leading separator
+     */
+    private String toRepositoryPath(File file) {
+        return FileUtils.localPathToGitPath(file.getPath(), config.getRepoName()).substring(1);
+    }
+
+    /**
+     * Parse the given file, answering from the parse cache when the
+     * same file contents were parsed before.
+     *
+     * @param file the file to parse
+     * @return the JClass of the file or null if it is not of a known class role
+     */
+    private JClass parseFile(File file) {
+        if (parseCache == null) {
+            return SourceToObjectUtils.parseClass(file, config);
+        }
+
+        // Read the file once, a cache miss parses the same bytes its blob id was computed from
+        byte[] source;
+        try {
+            source = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            Error.reportAndExit(Error.JPARSE_FAILED);
+            return null;
+        }
+
+        return parseCache.computeIfAbsent(ParseCacheService.blobId(source), FileUtils.localPathToGitPath(file.getPath(), config.getRepoName()),
+                () -> SourceToObjectUtils.parseClass(file, source, config));
+    }
+
+    /**
+     * Add a parsed class to the set matching its class role.
+     *
+     * @param jClass the class to add
+     */
+    private void sortClass(
+            JClass jClass,
+            Set<JClass> controllers,
+            Set<JClass> services,
+            Set<JClass> repositories,
+            Set<JClass> entities) {
         // Switch through class roles and handle additional logic if needed
         switch (jClass.getClassRole()) {
             case CONTROLLER:
@@ -247,4 +592,83 @@ public class IRExtractionService {
         }
 
     }
+
+    /**
+     * Fork/join task scanning a single microservice root directory, see {@link #recursivelyScanFiles(String)}
+     */
+    private class MicroserviceScanTask extends RecursiveTask<Microservice> {
+        private static final long serialVersionUID = 1L;
+
+        private final String rootMicroservicePath;
+
+        private MicroserviceScanTask(String rootMicroservicePath) {
+            this.rootMicroservicePath = rootMicroservicePath;
+        }
+
+        @Override
+        protected Microservice compute() {
+            return scanMicroservice(rootMicroservicePath, true);
+        }
+    }
+
+    /**
+     * Fork/join task scanning a directory, see {@link #scanDirectory(File, Set, Set, Set, Set)}.
+     * Every included subdirectory and java file becomes its own subtask so idle workers can steal them.
+     */
+    private class DirectoryScanTask extends RecursiveTask<List<JClass>> {
+        private static final long serialVersionUID = 1L;
+
+        private final File directory;
+
+        private DirectoryScanTask(File directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<JClass> compute() {
+            List<RecursiveTask<List<JClass>>> tasks = new ArrayList<>();
+            File[] files = directory.listFiles();
+
+            if (files != null) {
+                for (File file : files) {
+                    if (file.isDirectory()) {
+                        if (pathFilter.includesDirectory(toRepositoryPath(file))) {
+                            tasks.add(new DirectoryScanTask(file));
+                        }
+                    } else if (file.getName().endsWith(".java") && pathFilter.includesFile(toRepositoryPath(file))) {
+                        tasks.add(new FileScanTask(file));
+                    }
+                }
+            }
+
+            invokeAll(tasks);
+
+            List<JClass> classes = new ArrayList<>();
+            for (RecursiveTask<List<JClass>> task : tasks) {
+                classes.addAll(task.join());
+            }
+
+            return classes;
+        }
+    }
+
+    /**
+     * Fork/join task parsing a single java file, see {@link #scanFile(File, Set, Set, Set, Set)}
+     */
+    private class FileScanTask extends RecursiveTask<List<JClass>> {
+        private static final long serialVersionUID = 1L;
+
+        private final File file;
+
+        private FileScanTask(File file) {
+            this.file = file;
+        }
+
+        @Override
+        protected List<JClass> compute() {
+            JClass jClass = parseFile(file);
+
+            return jClass == null ? List.of() : List.of(jClass);
+        }
+    }
 }
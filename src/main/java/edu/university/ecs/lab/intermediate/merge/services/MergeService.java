@@ -6,13 +6,15 @@ import edu.university.ecs.lab.common.models.JClass;
 import edu.university.ecs.lab.common.models.Microservice;
 import edu.university.ecs.lab.common.models.MicroserviceSystem;
 import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.common.utils.PathTrie;
 import edu.university.ecs.lab.delta.models.Delta;
 import edu.university.ecs.lab.delta.models.SystemChange;
 
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -22,10 +24,30 @@ import java.util.stream.Collectors;
  * IR
  */
 public class MergeService {
+    /**
+     * Snapshot interval for {@link #applyChanges(List, int)} writing only the final IR
+     */
+    public static final int FINAL_ONLY = 0;
+
     private final Config config;
     private final MicroserviceSystem microserviceSystem;
     private final SystemChange systemChange;
 
+    /**
+     * Microservices indexed by their folder path
+     */
+    private final PathTrie<Microservice> microserviceIndex = new PathTrie<>();
+
+    /**
+     * Classes belonging to a microservice indexed by their path
+     */
+    private final Map<String, JClass> classIndex = new HashMap<>();
+
+    /**
+     * Orphan classes indexed by their path
+     */
+    private final Map<String, JClass> orphanIndex = new HashMap<>();
+
     // TODO handle exceptions here
     public MergeService(
             String intermediatePath,
@@ -34,6 +56,38 @@ public class MergeService {
         this.config = ConfigUtil.readConfig(configPath);
         this.microserviceSystem = JsonReadWriteUtils.readFromJSON(Path.of(intermediatePath).toAbsolutePath().toString(), MicroserviceSystem.class);
         this.systemChange = JsonReadWriteUtils.readFromJSON(Path.of(deltaPath).toAbsolutePath().toString(), SystemChange.class);
+        buildIndexes();
+    }
+
+    /**
+     * Create a merge service working on an IR already in memory, changes are
+     * applied with {@link #applyChange(SystemChange)} or {@link #applyChanges(List, int)}
+     *
+     * @param microserviceSystem the system to merge changes into, it is updated in place
+     * @param config the configuration of the system
+     */
+    public MergeService(MicroserviceSystem microserviceSystem, Config config) {
+        this.config = config;
+        this.microserviceSystem = microserviceSystem;
+        this.systemChange = null;
+        buildIndexes();
+    }
+
+    /**
+     * Index the microservices by path and every class by path so
+     * that each delta is merged without scanning the system
+     */
+    private void buildIndexes() {
+        for (Microservice microservice : microserviceSystem.getMicroservices()) {
+            microserviceIndex.put(microservice.getPath(), microservice);
+            for (JClass jClass : microservice.getClasses()) {
+                classIndex.put(jClass.getPath(), jClass);
+            }
+        }
+
+        for (JClass orphan : microserviceSystem.getOrphans()) {
+            orphanIndex.put(orphan.getPath(), orphan);
+        }
     }
 
     /**
@@ -42,17 +96,52 @@ public class MergeService {
     public void generateMergeIR() {
         System.out.println("Merging to new IR!");
 
-        // TODO optimize
-        // If no changes are present we will write back out same IR
-        if (Objects.isNull(systemChange.getChanges())) {
-            JsonReadWriteUtils.writeToJSON("./output/IR.json", microserviceSystem);
+        applyChange(systemChange);
+
+        JsonReadWriteUtils.writeToJSON("./output/IR.json", microserviceSystem, true);
+    }
+
+    /**
+     * This method applies an ordered sequence of changes to the IR in memory, writing
+     * a snapshot every snapshotInterval changes and the final IR to ./output/IR.json
+     *
+     * @param systemChanges the changes to apply in commit order
+     * @param snapshotInterval write ./output/IR-[commit].json after every snapshotInterval
+     *                         changes, or {@link #FINAL_ONLY} to write only the final IR
+     */
+    public void applyChanges(List<SystemChange> systemChanges, int snapshotInterval) {
+        System.out.println("Merging " + systemChanges.size() + " changes to new IR!");
+
+        int applied = 0;
+        for (SystemChange change : systemChanges) {
+            applyChange(change);
+            applied++;
+
+            if (snapshotInterval > FINAL_ONLY && applied % snapshotInterval == 0 && applied < systemChanges.size()) {
+                writeSnapshot("IR-" + change.getNewCommit() + ".json");
+            }
+        }
+
+        writeSnapshot("IR.json");
+    }
+
+    /**
+     * This method applies the changes between two commits to the IR in memory
+     *
+     * @param change the changes to apply
+     */
+    public void applyChange(SystemChange change) {
+        microserviceSystem.setCommitID(change.getNewCommit());
+
+        // If no changes are present the IR stays the same
+        if (Objects.isNull(change.getChanges())) {
             return;
         }
 
         // First we make necessary changes to microservices
-        updateMicroservices(systemChange.getChanges());
+        updateMicroservices(change.getChanges());
 
-        for (Delta d : systemChange.getChanges()) {
+        for (Delta d : change.getChanges()) {
 
             String path = d.getOldPath() == null ? d.getNewPath() : d.getOldPath();
 
@@ -73,9 +162,24 @@ public class MergeService {
                     break;
             }
         }
+    }
 
-        microserviceSystem.setCommitID(systemChange.getNewCommit());
-        JsonReadWriteUtils.writeToJSON("./output/IR.json", microserviceSystem);
+    /**
+     * This method writes the current IR to the output directory
+     *
+     * @param fileName the name of the file to write
+     */
+    public void writeSnapshot(String fileName) {
+        JsonReadWriteUtils.writeToJSON("./output/" + fileName, microserviceSystem, true);
+
+        System.out.println("Successfully wrote merged IR to: \"" + fileName + "\"");
+    }
+
+    /**
+     * @return the IR with all changes applied so far
+     */
+    public MicroserviceSystem getMicroserviceSystem() {
+        return microserviceSystem;
     }
 
 
@@ -86,50 +190,24 @@ public class MergeService {
      */
     public void modifyFiles(Delta delta) {
         // Here the path is irrelevant since it does not change
-        Microservice ms = microserviceSystem.getMicroservices().stream().filter(microservice -> microservice.getName().equals(getMicroserviceNameFromPath(delta.getOldPath()))).findFirst().orElse(null);
+        Microservice ms = microserviceIndex.findLongestPrefix(delta.getOldPath());
 
         // If we dont find a microservice
         if (Objects.isNull(ms)) {
-            // Check the orphan pool
-            for (JClass orphan : microserviceSystem.getOrphans()) {
-                // If found remove it and return
-                if (orphan.getPath().equals(delta.getOldPath())) {
-                    microserviceSystem.getOrphans().remove(orphan);
-
-                    // Only add it back if we parsed a valid JClass (not null)
-                    if (delta.getClassChange() != null) {
-                        microserviceSystem.getOrphans().add(delta.getClassChange());
-                    }
-
-                    return;
-                }
-            }
-            return;
-        }
-
-        Set<JClass> classes = ms.getClasses();
-
-        for (JClass jClass : classes) {
-            if (jClass.getPath().equals(delta.getOldPath())) {
-                ms.removeJClass(delta.getOldPath());
-
+            // Check the orphan pool, if found remove it
+            if (removeOrphan(delta.getOldPath())) {
                 // Only add it back if we parsed a valid JClass (not null)
-                if (delta.getClassChange() != null) {
-                    ms.addJClass(delta.getClassChange());
-                }
-
-                return;
+                addOrphan(delta.getClassChange());
             }
+            return;
         }
 
         // If we modify a class that was previously invalid
         // and we dont find it in previous classes or orphans
         // we should still add it because it might have been invalid
         // when we first tried to add it and was dropped
-        if (delta.getClassChange() != null) {
-            ms.addJClass(delta.getClassChange());
-        }
-
+        removeClass(ms, delta.getOldPath());
+        addClass(ms, delta.getClassChange());
     }
 
     /**
@@ -138,20 +216,16 @@ public class MergeService {
      * @param delta the delta change for adding
      */
     public void addFile(Delta delta) {
-
-
-        Microservice ms = microserviceSystem.getMicroservices().stream().filter(microservice -> microservice.getName().equals(getMicroserviceNameFromPath(delta.getNewPath()))).findFirst().orElse(null);
+        Microservice ms = microserviceIndex.findLongestPrefix(delta.getNewPath());
 
         // If we cant find his microservice after we called updateMicroservices then a file was pushed without a pom.xml
         // so it will be held as an orphan
         if (Objects.isNull(ms)) {
-            microserviceSystem.getOrphans().add(delta.getClassChange());
+            addOrphan(delta.getClassChange());
             return;
         }
 
-        ms.addJClass(delta.getClassChange());
-
-
+        addClass(ms, delta.getClassChange());
     }
 
     /**
@@ -160,24 +234,74 @@ public class MergeService {
      * @param delta the delta change for removal
      */
     public void removeFile(Delta delta) {
-        Microservice ms = microserviceSystem.getMicroservices().stream().filter(microservice -> microservice.getName().equals(getMicroserviceNameFromPath(delta.getOldPath()))).findFirst().orElse(null);
+        Microservice ms = microserviceIndex.findLongestPrefix(delta.getOldPath());
 
         // If we are removing a file and it's microservice doesn't exist
         if (Objects.isNull(ms)) {
             // Check the orphan pool
-            for (JClass orphan : microserviceSystem.getOrphans()) {
-                // If found remove it and return
-                if (orphan.getPath().equals(delta.getOldPath())) {
-                    microserviceSystem.getOrphans().remove(orphan);
-                    return;
-                }
+            removeOrphan(delta.getOldPath());
+            return;
+        }
+
+        removeClass(ms, delta.getOldPath());
+    }
+
+    private void addClass(Microservice ms, JClass jClass) {
+        if (jClass == null) {
+            return;
+        }
+
+        ms.addJClass(jClass);
+        classIndex.put(jClass.getPath(), jClass);
+    }
+
+    private void removeClass(Microservice ms, String path) {
+        JClass jClass = classIndex.remove(path);
+
+        // If we cannot find the class no problem, we will skip it quietly
+        if (jClass != null) {
+            ms.removeJClass(jClass);
+        }
+    }
+
+    /**
+     * Move the classes under the given folder between microservices, the class index
+     * still maps their paths to the same classes
+     *
+     * @param from the microservice holding the classes
+     * @param to the microservice receiving the classes
+     * @param folder the folder path of the moved classes, ending with a separator
+     */
+    private void moveClasses(Microservice from, Microservice to, String folder) {
+        for (JClass jClass : from.getClasses()) {
+            if (jClass.getPath().startsWith(folder)) {
+                from.removeJClass(jClass);
+                to.addJClass(jClass);
             }
+        }
+    }
+
+    private void addOrphan(JClass jClass) {
+        if (jClass == null) {
             return;
         }
 
-        ms.removeJClass(delta.getOldPath());
+        microserviceSystem.getOrphans().add(jClass);
+        orphanIndex.put(jClass.getPath(), jClass);
+    }
+
+    private boolean removeOrphan(String path) {
+        JClass orphan = orphanIndex.remove(path);
+        if (orphan == null) {
+            return false;
+        }
 
+        // Fall back to a path search in case the class changed since it was added
+        if (!microserviceSystem.getOrphans().remove(orphan)) {
+            microserviceSystem.getOrphans().removeIf(jClass -> jClass.getPath().equals(path));
+        }
 
+        return true;
     }
 
 
@@ -206,15 +330,44 @@ public class MergeService {
             switch (delta.getChangeType()) {
                 case ADD:
                     microservice = new Microservice(tokens[tokens.length - 2], delta.getNewPath().replace("/pom.xml", ""));
+                    // A nested microservice takes over the classes in its folder from the enclosing one,
+                    // so that later changes to them find the class where they look it up
+                    Microservice enclosing = microserviceIndex.findLongestPrefix(delta.getNewPath());
+                    if (Objects.nonNull(enclosing) && !enclosing.getPath().equals(microservice.getPath())) {
+                        moveClasses(enclosing, microservice, microservice.getPath() + "/");
+                    }
                     // Here we must check if any orphans are waiting on this creation
                     microserviceSystem.adopt(microservice);
                     microserviceSystem.getMicroservices().add(microservice);
+                    microserviceIndex.put(microservice.getPath(), microservice);
+                    for (JClass jClass : microservice.getClasses()) {
+                        orphanIndex.remove(jClass.getPath());
+                        classIndex.put(jClass.getPath(), jClass);
+                    }
                     break;
                 case DELETE:
-                    microservice = microserviceSystem.findMicroserviceByName(getMicroserviceNameFromPath(delta.getOldPath()));
+                    microservice = microserviceIndex.findLongestPrefix(delta.getOldPath());
+                    if (Objects.isNull(microservice)) {
+                        break;
+                    }
+                    // The hash of a microservice changes with its classes so remove by identity
+                    Microservice removed = microservice;
+                    microserviceSystem.getMicroservices().removeIf(m -> m == removed);
+                    microserviceIndex.remove(microservice.getPath());
+
+                    // The classes of a nested microservice fall back to the enclosing one
+                    Microservice remaining = microserviceIndex.findLongestPrefix(delta.getOldPath());
+                    if (Objects.nonNull(remaining)) {
+                        moveClasses(microservice, remaining, microservice.getPath() + "/");
+                        break;
+                    }
+
                     // Here we must orphan all the classes of this microservice
                     microserviceSystem.orphanize(microservice);
-                    microserviceSystem.getMicroservices().remove(microservice);
+                    for (JClass jClass : microservice.getClasses()) {
+                        classIndex.remove(jClass.getPath());
+                        orphanIndex.put(jClass.getPath(), jClass);
+                    }
                     break;
 
             }
@@ -222,14 +375,4 @@ public class MergeService {
         }
 
     }
-
-    private String getMicroserviceNameFromPath(String path) {
-        for (Microservice microservice : microserviceSystem.getMicroservices()) {
-            if (path.contains(microservice.getPath())) {
-                return microservice.getName();
-            }
-        }
-
-        return null;
-    }
 }
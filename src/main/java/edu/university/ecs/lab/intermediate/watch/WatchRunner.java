@@ -0,0 +1,35 @@
+package edu.university.ecs.lab.intermediate.watch;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.detection.antipatterns.services.AntipatternDetectionService;
+import edu.university.ecs.lab.intermediate.watch.services.WorkingTreeWatchService;
+
+/**
+ * This class acts as a runner for watching the working tree of the configured clone. Local
+ * edits are merged into the IR as they are saved, and ./output/IR.json, networkgraph.json and
+ * the anti-pattern summary are refreshed without a full extraction.
+ */
+public class WatchRunner {
+    /**
+     * Entry point for the watch mode
+     *
+     * @param args {@literal [/path/to/config] [debounceMillis]}
+     */
+    public static void main(String[] args) {
+        if (args.length > 2) {
+            Error.reportAndExit(Error.INVALID_ARGS);
+        }
+
+        String configPath = args.length > 0 ? args[0] : "./config.json";
+        long debounceMillis = args.length > 1 ? Long.parseLong(args[1]) : WorkingTreeWatchService.DEFAULT_DEBOUNCE_MILLIS;
+
+        Config config = ConfigUtil.readConfig(configPath);
+        FileUtils.createPaths();
+
+        AntipatternDetectionService detectionService = new AntipatternDetectionService("./healthcheck.yaml", "./apigateway.yaml");
+        new WorkingTreeWatchService(config, debounceMillis, detectionService).watch();
+    }
+}
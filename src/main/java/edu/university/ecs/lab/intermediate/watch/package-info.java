@@ -0,0 +1,9 @@
+/**
+ * This package contains the classes responsible for keeping the intermediate representation (IR) of the
+ * working tree up to date while it is edited.
+ *
+ * <p>{@link edu.university.ecs.lab.intermediate.watch.WatchRunner} starts the
+ * {@link edu.university.ecs.lab.intermediate.watch.services.WorkingTreeWatchService}, which merges each
+ * settled batch of local changes into the IR in memory and refreshes the network graph and anti-patterns.</p>
+ */
+package edu.university.ecs.lab.intermediate.watch;
@@ -0,0 +1,348 @@
+package edu.university.ecs.lab.intermediate.watch.services;
+
+import com.github.javaparser.ParseProblemException;
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.models.JClass;
+import edu.university.ecs.lab.common.models.Microservice;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.NetworkGraph;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.common.utils.PathGlobFilter;
+import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
+import edu.university.ecs.lab.delta.models.Delta;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.models.enums.ChangeType;
+import edu.university.ecs.lab.detection.antipatterns.models.AntipatternReport;
+import edu.university.ecs.lab.detection.antipatterns.services.AntipatternDetectionService;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Service keeping the IR of the clone's working tree up to date while it is edited. The
+ * directories of the clone are watched, and once a burst of changes has settled for the
+ * debounce period only the changed files are re-parsed. They are merged into the IR in
+ * memory with the add/modify/delete semantics of {@link MergeService}, after which the
+ * network graph is rebuilt and the anti-patterns are detected again.
+ */
+public class WorkingTreeWatchService {
+    /**
+     * Default time changes must settle for before they are applied, in milliseconds
+     */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    private final Config config;
+    private final long debounceMillis;
+    private final AntipatternDetectionService detectionService;
+    private final PathGlobFilter pathFilter;
+    private final Path clonePath;
+
+    /**
+     * The directories watched, by the key of their registration
+     */
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+    private WatchService watcher;
+    private MergeService mergeService;
+    private NetworkGraph networkGraph;
+    private AntipatternReport report;
+
+    /**
+     * Whether the last full extraction failed, the next change then extracts everything again
+     */
+    private boolean stale;
+
+    /**
+     * @param config the configuration of the system, the clone must already exist
+     * @param debounceMillis time changes must settle for before they are applied
+     * @param detectionService the service detecting the anti-patterns after each update
+     */
+    public WorkingTreeWatchService(Config config, long debounceMillis, AntipatternDetectionService detectionService) {
+        this.config = config;
+        this.debounceMillis = debounceMillis;
+        this.detectionService = detectionService;
+        this.pathFilter = new PathGlobFilter(config.getIncludePaths(), config.getExcludePaths());
+        this.clonePath = Path.of(FileUtils.getClonePath(config.getRepoName()));
+    }
+
+    /**
+     * This method extracts the IR of the working tree and watches it for changes until the
+     * thread is interrupted
+     */
+    public void watch() {
+        if (!Files.isDirectory(clonePath)) {
+            Error.reportAndExit(Error.REPO_DONT_EXIST);
+        }
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            watcher = watchService;
+            registerAll(clonePath, null);
+            rebuild();
+
+            System.out.println("Watching " + watchedDirectories.size() + " directories of \"" + clonePath + "\" for changes");
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changes = new LinkedHashSet<>();
+
+                // Block for the first change, then collect until none arrived for the debounce period
+                boolean overflow = collectEvents(watcher.take(), changes);
+                WatchKey key;
+                while ((key = watcher.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collectEvents(key, changes);
+                }
+
+                if (overflow || stale) {
+                    System.out.println("Extracting the working tree again");
+                    rebuild();
+                } else {
+                    update(changes);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            Error.reportAndExit(Error.WATCH_FAILED);
+        }
+    }
+
+    /**
+     * Extract the IR of the whole working tree, on start and when events were lost
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+
+        // Without a git service, creating one would reset the working tree and discard the local edits
+        IRExtractionService extractionService = new IRExtractionService(config, null, Runtime.getRuntime().availableProcessors(), null);
+        Set<Microservice> microservices;
+        try {
+            microservices = extractionService.scanWorkingTree();
+            stale = false;
+        } catch (ParseProblemException e) {
+            System.out.println("The working tree does not parse, extracting again after the next change");
+            stale = true;
+
+            // Keep the last IR, or start from an empty one so there is always a result
+            if (mergeService != null) {
+                return;
+            }
+            microservices = new HashSet<>();
+        }
+
+        MicroserviceSystem microserviceSystem = new MicroserviceSystem(config.getSystemName(), config.getBaseCommit(), microservices, new HashSet<>());
+        mergeService = new MergeService(microserviceSystem, config);
+        networkGraph = null;
+
+        refresh(start, -1);
+    }
+
+    /**
+     * Apply the settled changes of the working tree to the IR in memory
+     *
+     * @param changes the changed paths
+     */
+    private void update(Set<Path> changes) {
+        long start = System.currentTimeMillis();
+        List<Delta> deltas = new ArrayList<>();
+
+        for (Path path : changes) {
+            String gitPath = FileUtils.localPathToGitPath(path.toString(), config.getRepoName());
+
+            if (Files.isDirectory(path)) {
+                continue;
+            }
+
+            if (!Files.exists(path) && !isSourceFile(path)) {
+                // A deleted directory is only reported itself, remove everything that was below it
+                addDirectoryDeletion(deltas, gitPath);
+                continue;
+            }
+
+            if (!isSourceFile(path) || !pathFilter.includesFile(gitPath.substring(1))) {
+                continue;
+            }
+
+            if (path.getFileName().toString().equals("pom.xml")) {
+                addPomDelta(deltas, gitPath, Files.exists(path));
+            } else if (Files.exists(path)) {
+                addJavaDeltas(deltas, path, gitPath);
+            } else {
+                deltas.add(new Delta(gitPath, null, ChangeType.DELETE, null));
+            }
+        }
+
+        String commitID = mergeService.getMicroserviceSystem().getCommitID();
+        mergeService.applyChange(new SystemChange(commitID, commitID, deltas));
+
+        refresh(start, changes.size());
+    }
+
+    /**
+     * Parse a created or modified java file into deltas replacing the class at its path. Editors
+     * often save by moving a new file over the old one, so a created file may be known already
+     * and a modified one unknown. A file that does not parse (e.g. while being typed) is left as
+     * it was until it parses again.
+     */
+    private void addJavaDeltas(List<Delta> deltas, Path path, String gitPath) {
+        JClass jClass;
+        try {
+            jClass = SourceToObjectUtils.parseClass(path.toFile(), config);
+        } catch (ParseProblemException e) {
+            System.out.println("Skipping \"" + gitPath + "\" until it parses again");
+            return;
+        }
+
+        deltas.add(new Delta(gitPath, null, ChangeType.DELETE, null));
+
+        // Classes without a known role are never added, a modified one may have lost its role
+        if (jClass != null) {
+            deltas.add(new Delta(null, gitPath, ChangeType.ADD, jClass));
+        }
+    }
+
+    /**
+     * Add or remove the microservice a pom.xml declares, modifying a pom.xml does not change it
+     */
+    private void addPomDelta(List<Delta> deltas, String gitPath, boolean exists) {
+        String microservicePath = gitPath.substring(0, gitPath.length() - "/pom.xml".length());
+        boolean known = mergeService.getMicroserviceSystem().getMicroservices().stream()
+                .anyMatch(microservice -> microservice.getPath().equals(microservicePath));
+
+        if (exists && !known) {
+            deltas.add(new Delta(null, gitPath, ChangeType.ADD, null));
+        } else if (!exists && known) {
+            deltas.add(new Delta(gitPath, null, ChangeType.DELETE, null));
+        }
+    }
+
+    /**
+     * Add the deletions of the classes and microservices that were below a deleted directory
+     */
+    private void addDirectoryDeletion(List<Delta> deltas, String gitPath) {
+        String prefix = gitPath + FileUtils.GIT_SEPARATOR;
+        MicroserviceSystem microserviceSystem = mergeService.getMicroserviceSystem();
+
+        for (Microservice microservice : microserviceSystem.getMicroservices()) {
+            if ((microservice.getPath() + FileUtils.GIT_SEPARATOR).startsWith(prefix)) {
+                deltas.add(new Delta(microservice.getPath() + "/pom.xml", null, ChangeType.DELETE, null));
+            }
+            for (JClass jClass : microservice.getClasses()) {
+                if (jClass.getPath().startsWith(prefix)) {
+                    deltas.add(new Delta(jClass.getPath(), null, ChangeType.DELETE, null));
+                }
+            }
+        }
+
+        for (JClass orphan : microserviceSystem.getOrphans()) {
+            if (orphan.getPath().startsWith(prefix)) {
+                deltas.add(new Delta(orphan.getPath(), null, ChangeType.DELETE, null));
+            }
+        }
+    }
+
+    /**
+     * Rebuild the network graph and detect the anti-patterns, the graph based anti-patterns
+     * are only detected again if the graph changed
+     *
+     * @param start the time the update started
+     * @param changedFiles the number of changed files, negative for a full extraction
+     */
+    private void refresh(long start, int changedFiles) {
+        MicroserviceSystem microserviceSystem = mergeService.getMicroserviceSystem();
+
+        NetworkGraph graph = new NetworkGraph();
+        graph.createGraph(microserviceSystem);
+
+        if (networkGraph != null && graph.getNodes().equals(networkGraph.getNodes()) && graph.getEdges().equals(networkGraph.getEdges())) {
+            detectionService.updateSystemAntipatterns(report, microserviceSystem);
+        } else {
+            networkGraph = graph;
+            report = detectionService.detect(microserviceSystem, networkGraph);
+            JsonReadWriteUtils.writeToJSON("./output/networkgraph.json", networkGraph);
+        }
+
+        JsonReadWriteUtils.writeToJSON("./output/IR.json", microserviceSystem, true);
+
+        System.out.println((changedFiles < 0 ? "Extracted the working tree" : "Applied " + changedFiles + " changed paths")
+                + " in " + (System.currentTimeMillis() - start) + " ms: "
+                + networkGraph.getNodes().size() + " services, " + networkGraph.getEdges().size() + " edges, "
+                + report.getDetectedCount() + " anti-patterns detected");
+    }
+
+    /**
+     * Record the paths changed according to a watch key, registering created directories
+     *
+     * @return true if events were lost
+     */
+    private boolean collectEvents(WatchKey key, Set<Path> changes) throws IOException {
+        Path directory = watchedDirectories.get(key);
+        boolean overflow = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (OVERFLOW.equals(event.kind())) {
+                overflow = true;
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            changes.add(path);
+
+            // Files may be created in a new directory before it is registered, record them too
+            if (ENTRY_CREATE.equals(event.kind()) && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                registerAll(path, changes);
+            }
+        }
+
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+
+        return overflow;
+    }
+
+    /**
+     * Register a directory and all included directories below it
+     *
+     * @param root the directory to register
+     * @param changes if not null the files found are recorded as changed
+     */
+    private void registerAll(Path root, Set<Path> changes) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(clonePath) && (dir.getFileName().toString().equals(".git")
+                        || !pathFilter.includesDirectory(toRepositoryPath(dir)))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                watchedDirectories.put(dir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (changes != null) {
+                    changes.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private String toRepositoryPath(Path path) {
+        return FileUtils.localPathToGitPath(path.toString(), config.getRepoName()).substring(1);
+    }
+
+    private static boolean isSourceFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".java") || name.equals("pom.xml");
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Provides the service watching the working tree of the clone.
+ * <p>
+ * - {@link edu.university.ecs.lab.intermediate.watch.services.WorkingTreeWatchService}: Watches the clone's
+ *   directories, re-parses only the changed files and merges them into the IR in memory with the semantics
+ *   of {@link edu.university.ecs.lab.intermediate.merge.services.MergeService}.
+ */
+package edu.university.ecs.lab.intermediate.watch.services;
@@ -0,0 +1,61 @@
+package edu.university.ecs.lab.server;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.detection.antipatterns.services.AntipatternDetectionService;
+import edu.university.ecs.lab.server.services.AnalysisServer;
+import edu.university.ecs.lab.server.services.AnalysisService;
+
+import java.io.IOException;
+
+/**
+ * This class acts as a runner for the resident analysis server. The clone is opened once and
+ * extracted systems, deltas, network graphs and the parse cache stay in memory between
+ * requests, which are answered over a local HTTP/JSON API.
+ */
+public class AnalysisServerRunner {
+    /**
+     * Default port the server listens on
+     */
+    private static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Entry point for the analysis server
+     *
+     * @param args {@literal [/path/to/config] [port] [parallelism]}
+     */
+    public static void main(String[] args) {
+        if (args.length > 3) {
+            Error.reportAndExit(Error.INVALID_ARGS);
+        }
+
+        String configPath = args.length > 0 ? args[0] : "./config.json";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Config config = ConfigUtil.readConfig(configPath);
+        FileUtils.createPaths();
+
+        // Commits are read straight from the object database, the working tree is left as it is
+        GitService gitService = new GitService(config, false);
+        ParseCacheService parseCache = new ParseCacheService(FileUtils.getBaseCachePath());
+        AntipatternDetectionService detectionService = new AntipatternDetectionService("./healthcheck.yaml", "./apigateway.yaml");
+        AnalysisService analysisService = new AnalysisService(config, gitService, parseCache, detectionService, parallelism, AnalysisService.DEFAULT_CACHE_SIZE);
+
+        AnalysisServer server = null;
+        try {
+            server = new AnalysisServer(analysisService, port, parallelism);
+        } catch (IOException e) {
+            Error.reportAndExit(Error.SERVER_FAILED);
+        }
+
+        // From here on failures are answered as error responses instead of stopping the process
+        Error.setExitOnError(false);
+        server.start();
+        System.out.println("Analysis server listening on http://localhost:" + server.getAddress().getPort());
+    }
+}
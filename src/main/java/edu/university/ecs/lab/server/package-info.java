@@ -0,0 +1,9 @@
+/**
+ * This package contains the resident analysis server.
+ *
+ * <p>{@link edu.university.ecs.lab.server.AnalysisServerRunner} opens the configured clone once and starts
+ * the {@link edu.university.ecs.lab.server.services.AnalysisServer}, which answers extract, delta, merge and
+ * detect requests over a local HTTP/JSON API from the warm state of the
+ * {@link edu.university.ecs.lab.server.services.AnalysisService}.</p>
+ */
+package edu.university.ecs.lab.server;
@@ -0,0 +1,224 @@
+package edu.university.ecs.lab.server.services;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.error.ErrorException;
+import edu.university.ecs.lab.detection.antipatterns.models.AntipatternReport;
+import edu.university.ecs.lab.temporal.models.StageMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local HTTP server answering analysis requests with JSON from a warm {@link AnalysisService}.
+ *
+ * <ul>
+ *     <li>GET /extract?commit= the IR of a commit</li>
+ *     <li>GET /delta?old=&amp;new= the changes between two commits</li>
+ *     <li>GET /merge?old=&amp;new= the IR of the old commit with the changes merged in</li>
+ *     <li>GET /detect?commit= the anti-patterns and network graph of a commit</li>
+ *     <li>GET /metrics the latency and throughput of each endpoint</li>
+ * </ul>
+ *
+ * Failures are answered with {@code {"error": message}}, status 400 for invalid arguments and
+ * 500 otherwise, and never stop the server.
+ */
+public class AnalysisServer {
+    private static final Gson GSON = new Gson();
+
+    private final AnalysisService analysisService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Metrics and error count of each endpoint, by path
+     */
+    private final Map<String, StageMetrics> metrics = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> errors = new HashMap<>();
+
+    /**
+     * Number of requests being answered
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private long startNanos;
+
+    /**
+     * @param analysisService the service answering the requests
+     * @param port the local port to listen on
+     * @param threads number of requests answered concurrently
+     * @throws IOException if the port cannot be bound
+     */
+    public AnalysisServer(AnalysisService analysisService, int port, int threads) throws IOException {
+        this.analysisService = analysisService;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+
+        addEndpoint("/extract", query -> analysisService.extract(require(query, "commit")).toJsonObject());
+        addEndpoint("/delta", query -> GSON.toJsonTree(analysisService.delta(require(query, "old"), require(query, "new"))));
+        addEndpoint("/merge", query -> analysisService.merge(require(query, "old"), require(query, "new")).toJsonObject());
+        addEndpoint("/detect", this::detect);
+        server.createContext("/metrics", exchange -> respond(exchange, 200, getMetrics()));
+    }
+
+    /**
+     * Start answering requests
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        server.start();
+    }
+
+    /**
+     * Stop answering requests, waiting at most the given delay for requests being answered
+     *
+     * @param delaySeconds the number of seconds to wait
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the address the server is listening on
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Register an endpoint, timing each request and turning failures into error responses
+     */
+    private void addEndpoint(String path, Function<Map<String, String>, JsonElement> handler) {
+        StageMetrics stageMetrics = new StageMetrics(path);
+        AtomicLong errorCount = new AtomicLong();
+        metrics.put(path, stageMetrics);
+        errors.put(path, errorCount);
+
+        server.createContext(path, exchange -> {
+            stageMetrics.sampleQueueDepth(inFlight.getAndIncrement());
+            long start = System.nanoTime();
+            try {
+                JsonElement response;
+                int status = 200;
+                try {
+                    response = handler.apply(parseQuery(exchange.getRequestURI().getRawQuery()));
+                } catch (Throwable e) {
+                    // Answer every request, even if the analysis failed with an error
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    status = isInvalidArgument(cause) ? 400 : 500;
+                    response = errorResponse(cause);
+                    errorCount.incrementAndGet();
+                }
+                respond(exchange, status, response);
+            } finally {
+                stageMetrics.record(start);
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private JsonElement detect(Map<String, String> query) {
+        String commit = require(query, "commit");
+        AntipatternReport report = analysisService.detect(commit);
+
+        JsonObject response = new JsonObject();
+        response.addProperty("commit", analysisService.extract(commit).getCommitID());
+        response.addProperty("detected", report.getDetectedCount());
+        response.add("antipatterns", GSON.toJsonTree(report));
+        response.add("networkGraph", analysisService.getNetworkGraph(commit).toJsonObject());
+
+        return response;
+    }
+
+    private JsonElement getMetrics() {
+        double uptime = (System.nanoTime() - startNanos) / 1e9;
+
+        JsonObject endpoints = new JsonObject();
+        for (Map.Entry<String, StageMetrics> entry : metrics.entrySet()) {
+            StageMetrics stageMetrics = entry.getValue();
+            long requests = stageMetrics.getItems().get();
+
+            JsonObject endpoint = new JsonObject();
+            endpoint.addProperty("requests", requests);
+            endpoint.addProperty("errors", errors.get(entry.getKey()).get());
+            endpoint.addProperty("averageLatencyMillis", requests == 0 ? 0 : stageMetrics.getBusyNanos().get() / 1e6 / requests);
+            endpoint.addProperty("maxLatencyMillis", stageMetrics.getMaxNanos().get() / 1e6);
+            endpoint.addProperty("throughputPerBusySecond", stageMetrics.getThroughput());
+            endpoint.addProperty("requestsPerSecond", uptime == 0 ? 0 : requests / uptime);
+            endpoint.addProperty("averageQueueDepth", stageMetrics.getAverageQueueDepth());
+            endpoint.addProperty("maxQueueDepth", stageMetrics.getQueueDepthMax().get());
+            endpoints.add(entry.getKey(), endpoint);
+        }
+
+        JsonObject response = new JsonObject();
+        response.addProperty("uptimeSeconds", uptime);
+        response.addProperty("inFlight", inFlight.get());
+        response.addProperty("parseCache", analysisService.getParseCacheStatistics());
+        response.add("endpoints", endpoints);
+
+        return response;
+    }
+
+    private static String require(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing query parameter: " + name);
+        }
+
+        return value;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+
+        return query;
+    }
+
+    private static boolean isInvalidArgument(Throwable cause) {
+        return cause instanceof IllegalArgumentException
+                || (cause instanceof ErrorException && ((ErrorException) cause).getError() == Error.INVALID_ARGS);
+    }
+
+    private static JsonElement errorResponse(Throwable cause) {
+        JsonObject response = new JsonObject();
+        response.addProperty("error", cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage());
+
+        return response;
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonElement response) throws IOException {
+        byte[] body = GSON.toJson(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package edu.university.ecs.lab.server.services;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.models.NetworkGraph;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.services.DeltaExtractionService;
+import edu.university.ecs.lab.detection.antipatterns.models.AntipatternReport;
+import edu.university.ecs.lab.detection.antipatterns.services.AntipatternDetectionService;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Service holding the analysis state of a long-running process. The clone, the parse cache and
+ * the most recently used systems, deltas and graphs stay in memory between requests, so repeated
+ * requests are answered without reading or parsing anything again. Commits are read straight
+ * from the object database, the working tree is never touched, so requests may run concurrently.
+ */
+public class AnalysisService {
+    /**
+     * Default number of results of each kind kept in memory
+     */
+    public static final int DEFAULT_CACHE_SIZE = 16;
+
+    private final Config config;
+    private final GitService gitService;
+    private final ParseCacheService parseCache;
+    private final AntipatternDetectionService detectionService;
+    private final int parallelism;
+
+    private final ResultCache<MicroserviceSystem> systems;
+    private final ResultCache<SystemChange> systemChanges;
+    private final ResultCache<NetworkGraph> networkGraphs;
+
+    /**
+     * @param config the configuration of the system
+     * @param gitService the service of the local clone
+     * @param parseCache cache of parsed files to consult before parsing, may be null
+     * @param detectionService the service detecting the anti-patterns
+     * @param parallelism number of worker threads used to parse the files of one request
+     * @param cacheSize number of results of each kind kept in memory
+     */
+    public AnalysisService(Config config, GitService gitService, ParseCacheService parseCache,
+                           AntipatternDetectionService detectionService, int parallelism, int cacheSize) {
+        this.config = config;
+        this.gitService = gitService;
+        this.parseCache = parseCache;
+        this.detectionService = detectionService;
+        this.parallelism = parallelism;
+        this.systems = new ResultCache<>(cacheSize);
+        this.systemChanges = new ResultCache<>(cacheSize);
+        this.networkGraphs = new ResultCache<>(cacheSize);
+    }
+
+    /**
+     * This method extracts the IR of a commit, or returns it from memory when already extracted.
+     * The returned system is shared and must not be modified.
+     *
+     * @param revision the commit to extract
+     * @return the IR of the commit
+     */
+    public MicroserviceSystem extract(String revision) {
+        String commitID = gitService.resolveCommit(revision);
+
+        return systems.get(commitID, () ->
+                new IRExtractionService(config, gitService, parallelism, parseCache).extractIR(commitID));
+    }
+
+    /**
+     * This method extracts the changes between two commits, or returns them from memory
+     *
+     * @param oldRevision the old commit
+     * @param newRevision the new commit
+     * @return the system change between the commits
+     */
+    public SystemChange delta(String oldRevision, String newRevision) {
+        String oldCommit = gitService.resolveCommit(oldRevision);
+        String newCommit = gitService.resolveCommit(newRevision);
+
+        return systemChanges.get(oldCommit + ".." + newCommit, () ->
+                new DeltaExtractionService(config, gitService, oldCommit, newCommit, parseCache, parallelism).extractDeltaFromTrees());
+    }
+
+    /**
+     * This method merges the changes between two commits into the IR of the old commit
+     *
+     * @param oldRevision the commit of the IR to merge into
+     * @param newRevision the commit to merge up to
+     * @return a new IR, the IR of the old commit is left unchanged
+     */
+    public MicroserviceSystem merge(String oldRevision, String newRevision) {
+        MicroserviceSystem merged = copy(extract(oldRevision));
+
+        new MergeService(merged, config).applyChange(delta(oldRevision, newRevision));
+
+        return merged;
+    }
+
+    /**
+     * This method detects the anti-patterns of a commit, reusing its IR and network graph
+     *
+     * @param revision the commit to analyze
+     * @return the anti-patterns detected
+     */
+    public AntipatternReport detect(String revision) {
+        MicroserviceSystem microserviceSystem = extract(revision);
+
+        return detectionService.detect(microserviceSystem, getNetworkGraph(revision));
+    }
+
+    /**
+     * This method builds the network graph of a commit, or returns it from memory
+     *
+     * @param revision the commit
+     * @return the network graph of the commit
+     */
+    public NetworkGraph getNetworkGraph(String revision) {
+        MicroserviceSystem microserviceSystem = extract(revision);
+
+        return networkGraphs.get(microserviceSystem.getCommitID(), () -> {
+            NetworkGraph networkGraph = new NetworkGraph();
+            networkGraph.createGraph(microserviceSystem);
+            return networkGraph;
+        });
+    }
+
+    /**
+     * @return the statistics of the parse cache, or null without a cache
+     */
+    public String getParseCacheStatistics() {
+        return parseCache == null ? null : parseCache.getStatistics();
+    }
+
+    /**
+     * Deep copy an IR through its JSON form, so it can be merged into without changing the original
+     */
+    private static MicroserviceSystem copy(MicroserviceSystem microserviceSystem) {
+        return JsonReadWriteUtils.fromJsonElement(microserviceSystem.toJsonObject(), MicroserviceSystem.class);
+    }
+
+    /**
+     * Least recently used cache of results by key. A result is computed once even when several
+     * requests ask for it at the same time, the computation runs outside the lock so different
+     * keys are computed concurrently. Failed computations are not kept.
+     */
+    private static class ResultCache<T> {
+        private final Map<String, CompletableFuture<T>> results;
+
+        private ResultCache(int capacity) {
+            this.results = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<T>> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        private T get(String key, Supplier<T> supplier) {
+            CompletableFuture<T> created = new CompletableFuture<>();
+            CompletableFuture<T> result;
+            synchronized (results) {
+                result = results.putIfAbsent(key, created);
+            }
+
+            if (result == null) {
+                result = created;
+                try {
+                    created.complete(supplier.get());
+                } catch (Throwable e) {
+                    // Fail waiting requests as well, e.g. on a StackOverflowError while parsing
+                    synchronized (results) {
+                        results.remove(key, created);
+                    }
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                // Rethrow the failure of the computation as it was thrown
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+    }
+}
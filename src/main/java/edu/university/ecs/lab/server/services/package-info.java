@@ -0,0 +1,11 @@
+/**
+ * This package contains the services of the resident analysis server.
+ *
+ * <ul>
+ *     <li>{@link edu.university.ecs.lab.server.services.AnalysisService} - Keeps extracted systems, deltas and
+ *     network graphs of recent commits in memory and computes missing ones</li>
+ *     <li>{@link edu.university.ecs.lab.server.services.AnalysisServer} - Serves the analyses as JSON over HTTP and
+ *     exports the latency and throughput of each endpoint</li>
+ * </ul>
+ */
+package edu.university.ecs.lab.server.services;
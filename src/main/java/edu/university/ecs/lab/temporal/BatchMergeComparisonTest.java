@@ -0,0 +1,92 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.services.DeltaExtractionService;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.util.*;
+
+/**
+ * Extracts the IR of the first commit and the changes of every following commit from the
+ * object database through the parse cache, merges all changes in memory in a single pass and
+ * checks that the result equals the IR extracted at the last commit. See
+ * {@link IRComparisonTest} for the same check over the file based delta and merge path.
+ */
+public class BatchMergeComparisonTest {
+
+    public static void main(String[] args) {
+
+        Config config = ConfigUtil.readConfig("./config.json");
+        DeltaExtractionService deltaExtractionService;
+        FileUtils.createPaths();
+        // Reset once to the base commit, afterwards commits are read straight from the object database
+        GitService gitService = new GitService(config);
+        ParseCacheService parseCache = new ParseCacheService(FileUtils.getBaseCachePath());
+
+        Iterable<RevCommit> commits = gitService.getLog();
+
+        Iterator<RevCommit> iterator = commits.iterator();
+        List<RevCommit> list = new LinkedList<>();
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        Collections.reverse(list);
+        config.setBaseCommit(list.get(1).toString().split(" ")[1]);
+        // Create IR of first commit in memory
+        IRExtractionService irExtractionService = new IRExtractionService(config, gitService, IRExtractionService.SEQUENTIAL, parseCache);
+        MicroserviceSystem microserviceSystem = irExtractionService.extractIR(config.getBaseCommit());
+
+
+        // Loop through commit history and extract the changes of each commit
+        List<SystemChange> systemChanges = new ArrayList<>();
+        for (int i = 0; i < list.size() - 1; i++) {
+            String commitIdOld = list.get(i).toString().split(" ")[1];
+            String commitIdNew = list.get(i + 1).toString().split(" ")[1];
+
+            // Extract changes from one commit to the other
+            deltaExtractionService = new DeltaExtractionService(config, gitService, commitIdOld, commitIdNew, parseCache);
+            systemChanges.add(deltaExtractionService.extractDeltaFromTrees());
+        }
+
+        // Merge all changes into the first IR in a single pass, writing only the final IR
+        MergeService mergeService = new MergeService(microserviceSystem, config);
+        mergeService.applyChanges(systemChanges, MergeService.FINAL_ONLY);
+
+        // Create IR of last commit
+        config.setBaseCommit(list.get(list.size() - 1).toString().split(" ")[1]);
+        createIRSystem(config, gitService, "IRCompare.json", parseCache);
+
+        // Compare two IR's for equivalence
+        MicroserviceSystem microserviceSystem1 = JsonReadWriteUtils.readFromJSON("./output/IR.json", MicroserviceSystem.class);
+        microserviceSystem1.setCommitID(config.getBaseCommit());
+        MicroserviceSystem microserviceSystem2 = JsonReadWriteUtils.readFromJSON("./output/IRCompare.json", MicroserviceSystem.class);
+        boolean b = Objects.deepEquals(microserviceSystem1, microserviceSystem2);
+
+
+        // Output results
+        System.out.println(parseCache.getStatistics());
+        System.out.println(b);
+
+    }
+
+
+    private static void createIRSystem(Config config, GitService gitService, String fileName, ParseCacheService parseCache) {
+        // Create both directories needed
+        FileUtils.createPaths();
+
+        // Initialize the irExtractionService
+        IRExtractionService irExtractionService = new IRExtractionService(config, gitService, IRExtractionService.SEQUENTIAL, parseCache);
+
+        // Generate the Intermediate Representation of the base commit without checking it out
+        irExtractionService.generateIR(config.getBaseCommit(), fileName);
+    }
+}
@@ -0,0 +1,122 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.models.CompactGraph;
+import edu.university.ecs.lab.common.models.Edge;
+import edu.university.ecs.lab.common.models.NetworkGraph;
+import edu.university.ecs.lab.detection.antipatterns.models.WrongCuts;
+import edu.university.ecs.lab.detection.antipatterns.services.GreedyService;
+import edu.university.ecs.lab.detection.antipatterns.services.HubLikeService;
+import edu.university.ecs.lab.detection.antipatterns.services.WrongCutsService;
+
+import java.util.*;
+
+/**
+ * Checks the greedy, hub-like and wrong cuts detection on the {@link CompactGraph} against the
+ * previous scans over the {@link NetworkGraph} edges on random graphs with parallel edges and
+ * self loops.
+ * <p>
+ * Usage: CompactGraphComparisonTest [graphs] [maxNodes] [seed]
+ */
+public class CompactGraphComparisonTest {
+    /**
+     * Number of calls made or received by a greedy or hub-like service
+     */
+    private static final int RESTCALL_THRESHOLD = 5;
+
+    public static void main(String[] args) {
+        int graphs = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int maxNodes = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        Random random = new Random(args.length > 2 ? Long.parseLong(args[2]) : 42);
+
+        GreedyService greedyService = new GreedyService();
+        HubLikeService hubLikeService = new HubLikeService();
+        WrongCutsService wrongCutsService = new WrongCutsService();
+        boolean greedy = true;
+        boolean hubLike = true;
+        boolean wrongCuts = true;
+        int detected = 0;
+
+        for (int g = 0; g < graphs; g++) {
+            NetworkGraph networkGraph = CyclicDependencyComparisonTest.randomGraph(random, 1 + random.nextInt(maxNodes));
+            CompactGraph graph = new CompactGraph(networkGraph);
+
+            Set<String> expectedGreedy = overThreshold(networkGraph, true);
+            greedy &= expectedGreedy.equals(greedyService.getGreedyMicroservices(graph).getGreedyMicroservices());
+
+            Set<String> expectedHubLike = overThreshold(networkGraph, false);
+            hubLike &= expectedHubLike.equals(hubLikeService.getHubLikeMicroservice(graph).getHublikeMicroservices());
+
+            List<Set<String>> expectedWrongCuts = wrongCuts(networkGraph);
+            List<Set<String>> actualWrongCuts = new ArrayList<>();
+            for (WrongCuts wrongCut : wrongCutsService.identifyAndReportWrongCuts(graph)) {
+                actualWrongCuts.add(wrongCut.getWrongCuts());
+            }
+            wrongCuts &= expectedWrongCuts.equals(actualWrongCuts);
+
+            detected += expectedGreedy.size() + expectedHubLike.size() + expectedWrongCuts.size();
+        }
+
+        // Output results
+        System.out.println("Graphs: " + graphs + ", anti-patterns: " + detected);
+        System.out.println("Greedy: " + greedy);
+        System.out.println("Hub-like: " + hubLike);
+        System.out.println("Wrong cuts: " + wrongCuts);
+    }
+
+    /**
+     * Services making (or receiving) at least the threshold number of calls, counted over every edge
+     */
+    private static Set<String> overThreshold(NetworkGraph graph, boolean outgoing) {
+        Set<String> services = new HashSet<>();
+        for (String microserviceName : graph.getNodes()) {
+            int restCallCount = 0;
+            for (Edge edge : graph.getEdges()) {
+                if (microserviceName.equals(outgoing ? edge.getSource() : edge.getTarget())) {
+                    restCallCount++;
+                }
+            }
+            if (restCallCount >= RESTCALL_THRESHOLD) {
+                services.add(microserviceName);
+            }
+        }
+        return services;
+    }
+
+    /**
+     * Services reached by a depth first search from each service not yet visited, in node order,
+     * keeping the clusters of more than one service
+     */
+    private static List<Set<String>> wrongCuts(NetworkGraph graph) {
+        Map<String, List<String>> adjacencyList = new HashMap<>();
+        for (String node : graph.getNodes()) {
+            adjacencyList.put(node, new ArrayList<>());
+        }
+        for (Edge edge : graph.getEdges()) {
+            adjacencyList.get(edge.getSource()).add(edge.getTarget());
+        }
+
+        Set<String> visited = new HashSet<>();
+        List<Set<String>> wrongCuts = new ArrayList<>();
+        for (String node : graph.getNodes()) {
+            if (!visited.contains(node)) {
+                Set<String> cluster = new HashSet<>();
+                Deque<String> stack = new ArrayDeque<>();
+                stack.push(node);
+                visited.add(node);
+                while (!stack.isEmpty()) {
+                    String current = stack.pop();
+                    cluster.add(current);
+                    for (String neighbor : adjacencyList.get(current)) {
+                        if (visited.add(neighbor)) {
+                            stack.push(neighbor);
+                        }
+                    }
+                }
+                if (cluster.size() > 1) {
+                    wrongCuts.add(cluster);
+                }
+            }
+        }
+        return wrongCuts;
+    }
+}
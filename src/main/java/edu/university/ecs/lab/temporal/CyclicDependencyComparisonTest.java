@@ -0,0 +1,188 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.models.CompactGraph;
+import edu.university.ecs.lab.common.models.Edge;
+import edu.university.ecs.lab.common.models.NetworkGraph;
+import edu.university.ecs.lab.detection.antipatterns.models.CyclicDependency;
+import edu.university.ecs.lab.detection.antipatterns.services.CyclicDependencyService;
+
+import java.util.*;
+
+/**
+ * Checks the strongly connected components and the elementary cycles found by the
+ * {@link CyclicDependencyService} against a brute-force search on random graphs with parallel
+ * edges and self loops, and checks that the elementary cycles stop at the configured maximum.
+ * <p>
+ * Usage: CyclicDependencyComparisonTest [graphs] [maxNodes] [seed]
+ */
+public class CyclicDependencyComparisonTest {
+
+    public static void main(String[] args) {
+        int graphs = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int maxNodes = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        Random random = new Random(args.length > 2 ? Long.parseLong(args[2]) : 42);
+
+        // Uncapped, dense graphs may have more than the default maximum of elementary cycles
+        CyclicDependencyService cyclicDependencyService = new CyclicDependencyService(Integer.MAX_VALUE);
+        boolean components = true;
+        boolean cycles = true;
+        boolean capped = true;
+        int totalCycles = 0;
+
+        for (int g = 0; g < graphs; g++) {
+            NetworkGraph networkGraph = randomGraph(random, 1 + random.nextInt(maxNodes));
+            CompactGraph graph = new CompactGraph(networkGraph);
+            Map<String, Set<String>> successors = successors(networkGraph);
+
+            components &= normalizeComponents(cyclicDependencyService.findStronglyConnectedComponents(graph))
+                    .equals(bruteForceComponents(successors));
+
+            List<CyclicDependency> found = cyclicDependencyService.findElementaryCycles(graph);
+            Set<List<String>> expected = bruteForceCycles(successors);
+            Set<List<String>> actual = normalizeCycles(found);
+            cycles &= found.size() == actual.size() && actual.equals(expected);
+            totalCycles += expected.size();
+
+            int maxCycles = expected.size() / 2;
+            capped &= new CyclicDependencyService(maxCycles).findElementaryCycles(graph).size() == maxCycles;
+        }
+
+        // Output results
+        System.out.println("Graphs: " + graphs + ", elementary cycles: " + totalCycles);
+        System.out.println("Components: " + components);
+        System.out.println("Cycles: " + cycles);
+        System.out.println("Capped: " + capped);
+    }
+
+    /**
+     * Random directed multigraph, each ordered pair of nodes (including a node with itself)
+     * gets up to two edges on distinct endpoints
+     */
+    static NetworkGraph randomGraph(Random random, int size) {
+        double density = 0.1 + random.nextDouble() * 0.3;
+        Set<String> nodes = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            nodes.add("service-" + i);
+        }
+
+        Set<Edge> edges = new LinkedHashSet<>();
+        for (String source : nodes) {
+            for (String target : nodes) {
+                double chance = source.equals(target) ? density / 4 : density;
+                for (int endpoint = 0; endpoint < 2 && random.nextDouble() < chance; endpoint++) {
+                    edges.add(new Edge(source, target, "/api/" + endpoint, 1));
+                }
+            }
+        }
+
+        return new NetworkGraph("random", "random", true, true, nodes, edges);
+    }
+
+    /**
+     * Distinct successors of each service, in name order
+     */
+    static Map<String, Set<String>> successors(NetworkGraph graph) {
+        Map<String, Set<String>> successors = new TreeMap<>();
+        for (String node : graph.getNodes()) {
+            successors.put(node, new TreeSet<>());
+        }
+        for (Edge edge : graph.getEdges()) {
+            successors.get(edge.getSource()).add(edge.getTarget());
+        }
+        return successors;
+    }
+
+    /**
+     * Nodes that reach each other form a component, it is cyclic if it has more than one
+     * node or its node calls itself
+     */
+    private static Set<Set<String>> bruteForceComponents(Map<String, Set<String>> successors) {
+        Map<String, Set<String>> reachable = reachable(successors);
+        Set<Set<String>> components = new HashSet<>();
+        for (String node : successors.keySet()) {
+            Set<String> component = new TreeSet<>();
+            component.add(node);
+            for (String other : reachable.get(node)) {
+                if (reachable.get(other).contains(node)) {
+                    component.add(other);
+                }
+            }
+            if (component.size() > 1 || successors.get(node).contains(node)) {
+                components.add(component);
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Services reachable from each service over at least one call
+     */
+    static Map<String, Set<String>> reachable(Map<String, Set<String>> successors) {
+        Map<String, Set<String>> reachable = new HashMap<>();
+        for (String node : successors.keySet()) {
+            Set<String> seen = new HashSet<>();
+            Deque<String> stack = new ArrayDeque<>(successors.get(node));
+            while (!stack.isEmpty()) {
+                String next = stack.pop();
+                if (seen.add(next)) {
+                    stack.addAll(successors.get(next));
+                }
+            }
+            reachable.put(node, seen);
+        }
+        return reachable;
+    }
+
+    /**
+     * Every simple path from a node through greater nodes back to it is an elementary cycle,
+     * listed from its least node without repeating it
+     */
+    private static Set<List<String>> bruteForceCycles(Map<String, Set<String>> successors) {
+        Set<List<String>> cycles = new HashSet<>();
+        for (String start : successors.keySet()) {
+            List<String> path = new ArrayList<>();
+            path.add(start);
+            extendPath(start, path, successors, cycles);
+        }
+        return cycles;
+    }
+
+    private static void extendPath(String start, List<String> path, Map<String, Set<String>> successors, Set<List<String>> cycles) {
+        for (String next : successors.get(path.get(path.size() - 1))) {
+            if (next.equals(start)) {
+                cycles.add(new ArrayList<>(path));
+            } else if (next.compareTo(start) > 0 && !path.contains(next)) {
+                path.add(next);
+                extendPath(start, path, successors, cycles);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    private static Set<Set<String>> normalizeComponents(List<CyclicDependency> cyclicDependencies) {
+        Set<Set<String>> components = new HashSet<>();
+        for (CyclicDependency cyclicDependency : cyclicDependencies) {
+            components.add(new TreeSet<>(cyclicDependency.getCycle()));
+        }
+        return components;
+    }
+
+    /**
+     * Drop the repeated first node and rotate each cycle to start at its least node
+     */
+    private static Set<List<String>> normalizeCycles(List<CyclicDependency> cyclicDependencies) {
+        Set<List<String>> cycles = new HashSet<>();
+        for (CyclicDependency cyclicDependency : cyclicDependencies) {
+            List<String> cycle = new ArrayList<>(cyclicDependency.getCycle());
+            if (cycle.size() < 2 || !cycle.get(0).equals(cycle.get(cycle.size() - 1))) {
+                // Not closed, can never match the brute-force cycles
+                cycles.add(cycle);
+                continue;
+            }
+            cycle.remove(cycle.size() - 1);
+            Collections.rotate(cycle, -cycle.indexOf(Collections.min(cycle)));
+            cycles.add(cycle);
+        }
+        return cycles;
+    }
+}
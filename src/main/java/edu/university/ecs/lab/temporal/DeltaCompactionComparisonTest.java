@@ -0,0 +1,91 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.models.JClass;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.delta.models.Delta;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.models.enums.ChangeType;
+import edu.university.ecs.lab.delta.services.DeltaCompactionService;
+import edu.university.ecs.lab.delta.services.DeltaExtractionService;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Merges the changes of every commit of the configured history into the IR of the
+ * first commit once in turn and once compacted, and checks that both IRs are equal.
+ * The same is checked for a class deleted and added again at the same path.
+ */
+public class DeltaCompactionComparisonTest {
+
+    public static void main(String[] args) {
+        Config config = ConfigUtil.readConfig("./config.json");
+        FileUtils.createPaths();
+        // Reset once to the base commit, afterwards commits are read straight from the object database
+        GitService gitService = new GitService(config);
+        ParseCacheService parseCache = new ParseCacheService(FileUtils.getBaseCachePath());
+
+        List<String> commits = new ArrayList<>();
+        for (RevCommit commit : gitService.getLog()) {
+            commits.add(commit.getName());
+        }
+        Collections.reverse(commits);
+
+        MicroserviceSystem microserviceSystem = new IRExtractionService(config, gitService, IRExtractionService.SEQUENTIAL, parseCache).extractIR(commits.get(0));
+
+        List<SystemChange> systemChanges = new ArrayList<>();
+        for (int i = 0; i < commits.size() - 1; i++) {
+            systemChanges.add(new DeltaExtractionService(config, gitService, commits.get(i), commits.get(i + 1), parseCache).extractDeltaFromTrees());
+        }
+
+        // A class deleted and added again with other contents must replace the old class
+        JClass jClass = microserviceSystem.getMicroservices().iterator().next().getClasses().iterator().next();
+        JClass readdedClass = JsonReadWriteUtils.fromJsonElement(jClass.toJsonObject(), JClass.class);
+        readdedClass.setName(jClass.getName() + "Readded");
+        String commitID = microserviceSystem.getCommitID();
+        List<SystemChange> readded = List.of(
+                new SystemChange(commitID, commitID, new ArrayList<>(List.of(new Delta(jClass.getPath(), null, ChangeType.DELETE, null)))),
+                new SystemChange(commitID, commitID, new ArrayList<>(List.of(new Delta(null, jClass.getPath(), ChangeType.ADD, readdedClass)))));
+
+        // Output results
+        System.out.println("History: " + compare(microserviceSystem, systemChanges, config));
+        System.out.println("Delete and add: " + compare(microserviceSystem, readded, config));
+    }
+
+    /**
+     * Merge the changes in turn and compacted into copies of the IR
+     *
+     * @return whether both merged IRs are equal
+     */
+    private static boolean compare(MicroserviceSystem microserviceSystem, List<SystemChange> systemChanges, Config config) {
+        MergeService sequential = new MergeService(copy(microserviceSystem), config);
+        int deltas = 0;
+        for (SystemChange systemChange : systemChanges) {
+            sequential.applyChange(systemChange);
+            deltas += systemChange.getChanges().size();
+        }
+
+        SystemChange compacted = DeltaCompactionService.compact(systemChanges);
+        MergeService merged = new MergeService(copy(microserviceSystem), config);
+        merged.applyChange(compacted);
+
+        System.out.println("Compacted " + deltas + " deltas to " + compacted.getChanges().size());
+        // Compare fresh copies, classes changed in place may sit under stale hashes in their sets
+        return Objects.deepEquals(copy(sequential.getMicroserviceSystem()), copy(merged.getMicroserviceSystem()));
+    }
+
+    private static MicroserviceSystem copy(MicroserviceSystem microserviceSystem) {
+        return JsonReadWriteUtils.fromJsonElement(microserviceSystem.toJsonObject(), MicroserviceSystem.class);
+    }
+}
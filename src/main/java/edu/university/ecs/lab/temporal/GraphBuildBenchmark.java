@@ -0,0 +1,132 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.models.*;
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the network graph of a synthetic system once with the indexed
+ * {@link NetworkGraph#createGraph(MicroserviceSystem)} and once with the previous nested loop
+ * over every rest call and endpoint, checks that nodes, edges and weights are identical and
+ * reports the time of both.
+ * <p>
+ * Usage: GraphBuildBenchmark [microservices] [endpointsPerService] [restCallsPerService]
+ */
+public class GraphBuildBenchmark {
+    private static final HttpMethod[] HTTP_METHODS = {HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE};
+
+    public static void main(String[] args) {
+        int microservices = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int endpointsPerService = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+        int restCallsPerService = args.length > 2 ? Integer.parseInt(args[2]) : 120;
+
+        MicroserviceSystem microserviceSystem = createSyntheticSystem(microservices, endpointsPerService, restCallsPerService);
+        System.out.println("Endpoints: " + microservices * endpointsPerService + ", rest calls: " + microservices * restCallsPerService);
+
+        long start = System.nanoTime();
+        NetworkGraph indexed = new NetworkGraph();
+        indexed.createGraph(microserviceSystem);
+        long indexedTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        NetworkGraph nested = createGraphNested(microserviceSystem);
+        long nestedTime = System.nanoTime() - start;
+
+        System.out.printf("Indexed: %.1f ms, nested loop: %.1f ms%n", indexedTime / 1e6, nestedTime / 1e6);
+        System.out.println("Edges: " + indexed.getEdges().size());
+        System.out.println(indexed.getNodes().equals(nested.getNodes()) && weights(indexed).equals(weights(nested)));
+    }
+
+    private static Map<String, Integer> weights(NetworkGraph networkGraph) {
+        return networkGraph.getEdges().stream().collect(Collectors.toMap(
+                edge -> edge.getSource() + " -> " + edge.getTarget() + " " + edge.getEndpoint(), Edge::getWeight));
+    }
+
+    /**
+     * The nested loop matching used before endpoints were indexed
+     */
+    private static NetworkGraph createGraphNested(MicroserviceSystem microserviceSystem) {
+        List<RestCall> restCalls = new ArrayList<>();
+        List<Endpoint> endpoints = new ArrayList<>();
+
+        for (Microservice microservice : microserviceSystem.getMicroservices()) {
+            for (JClass service : microservice.getServices()) {
+                service.getMethodCalls().stream().filter(methodCall -> methodCall instanceof RestCall)
+                        .forEach(methodCall -> restCalls.add((RestCall) methodCall));
+            }
+            for (JClass controller : microservice.getControllers()) {
+                controller.getMethods().stream().filter(method -> method instanceof Endpoint)
+                        .forEach(method -> endpoints.add((Endpoint) method));
+            }
+        }
+
+        List<Edge> edgesList = new ArrayList<>();
+        Set<String> nodes = new HashSet<>();
+
+        for (RestCall restCall : restCalls) {
+            for (Endpoint endpoint : endpoints) {
+                if (restCall.getUrl().equals(endpoint.getUrl()) && restCall.getHttpMethod().equals(endpoint.getHttpMethod())) {
+                    edgesList.add(new Edge(restCall.getMicroserviceName(), endpoint.getMicroserviceName(), endpoint.getUrl(), 0));
+                    nodes.add(endpoint.getMicroserviceName());
+                    nodes.add(restCall.getMicroserviceName());
+                }
+            }
+        }
+
+        Set<Edge> edges = edgesList.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .entrySet().stream().map(entry -> {
+                    Edge edge = entry.getKey();
+                    edge.setWeight(Math.toIntExact(entry.getValue()));
+                    return edge;
+                }).collect(Collectors.toSet());
+
+        return new NetworkGraph("Test", microserviceSystem.getCommitID(), true, false, nodes, edges);
+    }
+
+    /**
+     * Create a system where every microservice has one controller exposing endpoints and
+     * one service calling endpoints of other microservices, some urls are repeated so that
+     * edges carry weights above one
+     */
+    private static MicroserviceSystem createSyntheticSystem(int microservices, int endpointsPerService, int restCallsPerService) {
+        Random random = new Random(42);
+        Set<Microservice> microserviceSet = new HashSet<>();
+
+        for (int s = 0; s < microservices; s++) {
+            String name = "ts-synthetic-" + s + "-service";
+            Microservice microservice = new Microservice(name, "./clone/synthetic/" + name);
+
+            Set<Method> methods = new HashSet<>();
+            for (int e = 0; e < endpointsPerService; e++) {
+                Method method = new Method("endpoint" + e, name + ".Controller", new HashSet<>(), "String", new HashSet<>());
+                methods.add(new Endpoint(method, url(s, e), HTTP_METHODS[e % HTTP_METHODS.length], name));
+            }
+            microservice.getControllers().add(new JClass("Controller", microservice.getPath() + "/Controller.java", name,
+                    ClassRole.CONTROLLER, methods, new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashSet<>()));
+
+            Set<MethodCall> methodCalls = new HashSet<>();
+            for (int r = 0; r < restCallsPerService; r++) {
+                int target = random.nextInt(microservices);
+                int endpoint = random.nextInt(endpointsPerService);
+                // Roughly one in eight calls uses a method the target endpoint does not accept
+                HttpMethod httpMethod = random.nextInt(8) == 0 ? HttpMethod.PATCH : HTTP_METHODS[endpoint % HTTP_METHODS.length];
+                MethodCall methodCall = new MethodCall("exchange", name + ".Service", "restTemplate", "call" + r, "");
+                methodCalls.add(new RestCall(methodCall, url(target, endpoint), httpMethod, name));
+            }
+            microservice.getServices().add(new JClass("Service", microservice.getPath() + "/Service.java", name,
+                    ClassRole.SERVICE, new HashSet<>(), new HashSet<>(), new HashSet<>(), methodCalls, new HashSet<>()));
+
+            microserviceSet.add(microservice);
+        }
+
+        return new MicroserviceSystem("synthetic", "synthetic", microserviceSet, new HashSet<>());
+    }
+
+    private static String url(int service, int endpoint) {
+        return "/api/v1/service" + service + "/resource" + (endpoint / 2);
+    }
+}
@@ -0,0 +1,77 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+import edu.university.ecs.lab.temporal.models.StageMetrics;
+import edu.university.ecs.lab.temporal.services.CheckpointService;
+import edu.university.ecs.lab.temporal.services.HistoryAnalysisService;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class acts as a runner for analyzing the full commit history of the configured repository.
+ * The IR of the first commit is extracted and the changes of every following commit are merged
+ * into it through the pipeline of {@link HistoryAnalysisService}. The IR is checkpointed to
+ * ./checkpoints/[repoName] periodically and a crashed run can be resumed from the newest valid checkpoint.
+ */
+public class HistoryAnalysisRunner {
+    /**
+     * Default number of commits between checkpoints
+     */
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+
+    /**
+     * Entry point for the history analysis
+     *
+     * @param args {@literal [/path/to/config] [parallelism] [snapshotInterval] [queueCapacity] [checkpointInterval] [resume]}
+     */
+    public static void main(String[] args) {
+        if (args.length > 6) {
+            Error.reportAndExit(Error.INVALID_ARGS);
+        }
+
+        String configPath = args.length > 0 ? args[0] : "./config.json";
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int snapshotInterval = args.length > 2 ? Integer.parseInt(args[2]) : MergeService.FINAL_ONLY;
+        int queueCapacity = args.length > 3 ? Integer.parseInt(args[3]) : HistoryAnalysisService.DEFAULT_QUEUE_CAPACITY;
+        int checkpointInterval = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_CHECKPOINT_INTERVAL;
+        boolean resume = args.length > 5 && Boolean.parseBoolean(args[5]);
+
+        Config config = ConfigUtil.readConfig(configPath);
+        FileUtils.createPaths();
+
+        // Reset once to the base commit, afterwards commits are read straight from the object database
+        GitService gitService = new GitService(config);
+        ParseCacheService parseCache = new ParseCacheService(FileUtils.getBaseCachePath());
+
+        List<String> commits = new ArrayList<>();
+        for (RevCommit commit : gitService.getLog()) {
+            commits.add(commit.getName());
+        }
+        Collections.reverse(commits);
+
+        CheckpointService checkpointService = new CheckpointService(FileUtils.getCheckpointPath(config.getRepoName()), checkpointInterval);
+        HistoryAnalysisService historyAnalysisService = new HistoryAnalysisService(config, gitService, parseCache, parallelism, queueCapacity, checkpointService);
+
+        long start = System.nanoTime();
+        historyAnalysisService.analyze(commits, snapshotInterval, resume);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Output results
+        System.out.printf("Analyzed %d commits in %.2f s (%.1f commits/s)%n", commits.size(), seconds, (commits.size() - 1) / seconds);
+        for (StageMetrics stageMetrics : historyAnalysisService.getMetrics()) {
+            System.out.println(stageMetrics);
+        }
+        System.out.println(parseCache.getStatistics());
+        System.out.println(SourceToObjectUtils.getPreScanStatistics());
+    }
+}
@@ -0,0 +1,132 @@
+package edu.university.ecs.lab.temporal;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import edu.university.ecs.lab.common.models.*;
+import edu.university.ecs.lab.common.models.enums.ClassRole;
+import edu.university.ecs.lab.common.models.enums.HttpMethod;
+import edu.university.ecs.lab.common.models.serialization.MethodCallDeserializer;
+import edu.university.ecs.lab.common.models.serialization.MethodCallTypeAdapter;
+import edu.university.ecs.lab.common.models.serialization.MethodDeserializer;
+import edu.university.ecs.lab.common.models.serialization.MethodTypeAdapter;
+import edu.university.ecs.lab.common.models.serialization.StreamingJsonWriter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compares the load time and allocation of the legacy JsonObject based deserializers
+ * against the streaming type adapters. Reads the IR file given as first argument or
+ * generates a synthetic system with the given number of classes when the first argument
+ * is "synthetic".
+ * <p>
+ * Usage: IRLoadBenchmark [irPath|synthetic] [classes] [iterations]
+ */
+public class IRLoadBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String source = args.length > 0 ? args[0] : "synthetic";
+        int classes = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        String json = source.equals("synthetic") ? createSyntheticIR(classes) : Files.readString(Path.of(source));
+
+        Gson legacy = new GsonBuilder()
+                .registerTypeAdapter(Method.class, new MethodDeserializer())
+                .registerTypeAdapter(MethodCall.class, new MethodCallDeserializer())
+                .create();
+        Gson streaming = new GsonBuilder()
+                .registerTypeAdapter(Method.class, new MethodTypeAdapter().nullSafe())
+                .registerTypeAdapter(MethodCall.class, new MethodCallTypeAdapter().nullSafe())
+                .create();
+
+        // Both readers must produce the same system
+        MicroserviceSystem legacySystem = legacy.fromJson(json, MicroserviceSystem.class);
+        MicroserviceSystem streamingSystem = streaming.fromJson(json, MicroserviceSystem.class);
+        System.out.println("Equal results: " + legacySystem.toJsonObject().equals(streamingSystem.toJsonObject()));
+        System.out.println("Input size: " + json.length() / 1024 + "KB");
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < iterations; i++) {
+            load(legacy, json);
+            load(streaming, json);
+        }
+
+        report("Deserializers", legacy, json, iterations);
+        report("TypeAdapters", streaming, json, iterations);
+    }
+
+    private static void report(String label, Gson gson, String json, int iterations) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long bytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            load(gson, json);
+        }
+        long time = System.nanoTime() - start;
+        long bytes = threadMXBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        System.out.printf("%-14s %8.1f ms/load %10.1f MB allocated/load%n", label,
+                time / 1e6 / iterations, bytes / (1024.0 * 1024.0) / iterations);
+    }
+
+    private static MicroserviceSystem load(Gson gson, String json) {
+        return gson.fromJson(new StringReader(json), MicroserviceSystem.class);
+    }
+
+    /**
+     * Create a system of a single microservice holding the given number of controllers,
+     * each with endpoints, plain methods, rest calls and method calls
+     */
+    private static String createSyntheticIR(int classes) throws IOException {
+        Set<JClass> controllers = new HashSet<>();
+        for (int c = 0; c < classes; c++) {
+            String packageName = "com.example.synthetic";
+            String className = "Controller" + c;
+            String packageAndClassName = packageName + "." + className;
+
+            Set<Annotation> annotations = new HashSet<>();
+            annotations.add(new Annotation("RestController", packageAndClassName, ""));
+
+            Set<Method> methods = new HashSet<>();
+            Set<MethodCall> methodCalls = new HashSet<>();
+            for (int m = 0; m < 10; m++) {
+                Set<Field> parameters = new HashSet<>();
+                parameters.add(new Field("id", packageAndClassName, "String"));
+                Set<Annotation> methodAnnotations = new HashSet<>();
+                methodAnnotations.add(new Annotation("GetMapping", packageAndClassName, "[value = \"/api/" + c + "/" + m + "\"]"));
+
+                Method method = new Method("method" + m, packageAndClassName, parameters, "String", methodAnnotations);
+                methods.add(m % 2 == 0 ? new Endpoint(method, "/api/" + c + "/" + m, HttpMethod.GET, "ts-synthetic") : method);
+
+                for (int k = 0; k < 5; k++) {
+                    MethodCall methodCall = new MethodCall("call" + k, packageAndClassName, "service", "method" + m, "id");
+                    methodCalls.add(k == 0 ? new RestCall(methodCall, "/api/" + (c + 1) + "/" + m, HttpMethod.GET, "ts-synthetic") : methodCall);
+                }
+            }
+
+            controllers.add(new JClass(className, "./clone/synthetic/ts-synthetic/" + className + ".java", packageName,
+                    ClassRole.CONTROLLER, methods, new HashSet<>(), annotations, methodCalls, new HashSet<>()));
+        }
+
+        Microservice microservice = new Microservice("ts-synthetic", "./clone/synthetic/ts-synthetic");
+        microservice.getControllers().addAll(controllers);
+        Set<Microservice> microservices = new HashSet<>();
+        microservices.add(microservice);
+
+        StringWriter stringWriter = new StringWriter();
+        new StreamingJsonWriter(new JsonWriter(stringWriter), false)
+                .write(new MicroserviceSystem("synthetic", "synthetic", microservices, new HashSet<>()));
+
+        return stringWriter.toString();
+    }
+}
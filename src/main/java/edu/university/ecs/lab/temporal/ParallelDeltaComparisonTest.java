@@ -0,0 +1,60 @@
+package edu.university.ecs.lab.temporal;
+
+import com.google.gson.Gson;
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.services.DeltaExtractionService;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Extracts the changes of every commit of the configured history once sequentially
+ * and once on a worker pool and checks that both system changes are identical,
+ * including the order of their deltas.
+ */
+public class ParallelDeltaComparisonTest {
+
+    public static void main(String[] args) {
+        Config config = ConfigUtil.readConfig("./config.json");
+        int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        FileUtils.createPaths();
+        // Reset once to the base commit, afterwards commits are read straight from the object database
+        GitService gitService = new GitService(config);
+        Gson gson = new Gson();
+
+        List<String> commits = new ArrayList<>();
+        for (RevCommit commit : gitService.getLog()) {
+            commits.add(commit.getName());
+        }
+        Collections.reverse(commits);
+
+        long sequentialTime = 0;
+        long parallelTime = 0;
+        int deltas = 0;
+        boolean equal = true;
+        for (int i = 0; i < commits.size() - 1; i++) {
+            long start = System.currentTimeMillis();
+            SystemChange sequential = new DeltaExtractionService(config, gitService, commits.get(i), commits.get(i + 1), null,
+                    DeltaExtractionService.SEQUENTIAL).extractDeltaFromTrees();
+            sequentialTime += System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            SystemChange parallel = new DeltaExtractionService(config, gitService, commits.get(i), commits.get(i + 1), null,
+                    parallelism).extractDeltaFromTrees();
+            parallelTime += System.currentTimeMillis() - start;
+
+            deltas += sequential.getChanges().size();
+            equal &= gson.toJson(sequential).equals(gson.toJson(parallel));
+        }
+
+        // Output results
+        System.out.println(deltas + " deltas, sequential: " + sequentialTime + "ms, parallel (" + parallelism + "): " + parallelTime + "ms");
+        System.out.println(equal);
+    }
+}
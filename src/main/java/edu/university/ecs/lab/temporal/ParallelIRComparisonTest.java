@@ -0,0 +1,64 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Extracts the IR of the configured commit once sequentially and once on a
+ * fork/join pool and checks that both output files are byte-identical. The
+ * comparison is repeated with include and exclude globs set, which must also
+ * change the output so the globs are known to apply.
+ */
+public class ParallelIRComparisonTest {
+
+    /**
+     * @param args {@literal [parallelism] [includeGlob] [excludeGlob]}
+     */
+    public static void main(String[] args) throws IOException {
+        Config config = ConfigUtil.readConfig("./config.json");
+        int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String includeGlob = args.length > 1 ? args[1] : "**";
+        String excludeGlob = args.length > 2 ? args[2] : "**/service/**";
+        FileUtils.createPaths();
+
+        byte[] unfiltered = compare(config, parallelism, "");
+
+        config.setIncludePaths(List.of(includeGlob));
+        config.setExcludePaths(List.of(excludeGlob));
+        byte[] filtered = compare(config, parallelism, "Filtered");
+
+        // Output results
+        System.out.println("Globs applied: " + !Arrays.equals(unfiltered, filtered));
+    }
+
+    /**
+     * Extract the IR sequentially and in parallel, print whether both are identical
+     *
+     * @return the sequentially extracted IR file
+     */
+    private static byte[] compare(Config config, int parallelism, String label) throws IOException {
+        long start = System.currentTimeMillis();
+        new IRExtractionService(config).generateIR("IR" + label + "Sequential.json");
+        long sequentialTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        new IRExtractionService(config, parallelism).generateIR("IR" + label + "Parallel.json");
+        long parallelTime = System.currentTimeMillis() - start;
+
+        byte[] sequential = Files.readAllBytes(Path.of(FileUtils.getBaseOutputPath(), "IR" + label + "Sequential.json"));
+        byte[] parallel = Files.readAllBytes(Path.of(FileUtils.getBaseOutputPath(), "IR" + label + "Parallel.json"));
+
+        System.out.println(label + "Sequential: " + sequentialTime + "ms, parallel (" + parallelism + "): " + parallelTime + "ms");
+        System.out.println(Arrays.equals(sequential, parallel));
+
+        return sequential;
+    }
+}
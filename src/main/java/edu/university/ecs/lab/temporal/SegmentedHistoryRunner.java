@@ -0,0 +1,74 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.config.ConfigUtil;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
+import edu.university.ecs.lab.common.utils.FileUtils;
+import edu.university.ecs.lab.common.utils.SourceToObjectUtils;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+import edu.university.ecs.lab.temporal.models.StageMetrics;
+import edu.university.ecs.lab.temporal.services.HistoryAnalysisService;
+import edu.university.ecs.lab.temporal.services.SegmentedHistoryService;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class acts as a runner for analyzing the full commit history of the configured repository
+ * in parallel segments through {@link SegmentedHistoryService}.
+ */
+public class SegmentedHistoryRunner {
+
+    /**
+     * Entry point for the segmented history analysis
+     *
+     * @param args {@literal [/path/to/config] [segments] [parallelism] [snapshotInterval]}
+     */
+    public static void main(String[] args) {
+        if (args.length > 4) {
+            Error.reportAndExit(Error.INVALID_ARGS);
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        String configPath = args.length > 0 ? args[0] : "./config.json";
+        int segments = args.length > 1 ? Integer.parseInt(args[1]) : processors;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : processors;
+        int snapshotInterval = args.length > 3 ? Integer.parseInt(args[3]) : MergeService.FINAL_ONLY;
+
+        Config config = ConfigUtil.readConfig(configPath);
+        FileUtils.createPaths();
+
+        // Reset once to the base commit, afterwards commits are read straight from the object database
+        GitService gitService = new GitService(config);
+        ParseCacheService parseCache = new ParseCacheService(FileUtils.getBaseCachePath());
+
+        List<String> commits = new ArrayList<>();
+        for (RevCommit commit : gitService.getLog()) {
+            commits.add(commit.getName());
+        }
+        Collections.reverse(commits);
+
+        SegmentedHistoryService segmentedHistoryService = new SegmentedHistoryService(config, gitService, parseCache,
+                segments, parallelism, HistoryAnalysisService.DEFAULT_QUEUE_CAPACITY);
+
+        long start = System.nanoTime();
+        segmentedHistoryService.analyze(commits, snapshotInterval);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Output results
+        System.out.printf("Analyzed %d commits in %.2f s (%.1f commits/s)%n", commits.size(), seconds, (commits.size() - 1) / seconds);
+        List<List<StageMetrics>> metrics = segmentedHistoryService.getMetrics();
+        for (int i = 0; i < metrics.size(); i++) {
+            System.out.println("Segment " + i);
+            for (StageMetrics stageMetrics : metrics.get(i)) {
+                System.out.println(stageMetrics);
+            }
+        }
+        System.out.println(parseCache.getStatistics());
+        System.out.println(SourceToObjectUtils.getPreScanStatistics());
+    }
+}
@@ -0,0 +1,146 @@
+package edu.university.ecs.lab.temporal;
+
+import edu.university.ecs.lab.common.models.CompactGraph;
+import edu.university.ecs.lab.common.models.Edge;
+import edu.university.ecs.lab.common.models.NetworkGraph;
+import edu.university.ecs.lab.detection.antipatterns.models.ServiceChain;
+import edu.university.ecs.lab.detection.antipatterns.services.ServiceChainService;
+
+import java.util.*;
+
+/**
+ * Checks the chains found by {@link ServiceChainService#findServiceChains} on random graphs with
+ * parallel edges, self loops and cycles against a brute-force search, and pins down how they differ
+ * from the deprecated {@link ServiceChainService#getServiceChains(CompactGraph)}:
+ * <ul>
+ *     <li>a chain never follows a call inside a strongly connected component</li>
+ *     <li>a chain starts only at a service no other component calls</li>
+ *     <li>parallel calls between the same services yield the chain once</li>
+ *     <li>a chain may end in a cyclic component without calls leaving it</li>
+ * </ul>
+ * Every deprecated chain that passes the first three rules is found, and on acyclic graphs
+ * nothing else is.
+ * <p>
+ * Usage: ServiceChainComparisonTest [graphs] [maxNodes] [seed]
+ */
+public class ServiceChainComparisonTest {
+
+    @SuppressWarnings("deprecation")
+    public static void main(String[] args) {
+        int graphs = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int maxNodes = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        Random random = new Random(args.length > 2 ? Long.parseLong(args[2]) : 42);
+
+        ServiceChainService serviceChainService = new ServiceChainService(ServiceChainService.DEFAULT_THRESHOLD,
+                ServiceChainService.DEFAULT_MAX_DEPTH, Integer.MAX_VALUE);
+        boolean bruteForce = true;
+        boolean contained = true;
+        boolean acyclic = true;
+        int deprecatedCount = 0;
+        int filteredCount = 0;
+        int foundCount = 0;
+
+        for (int g = 0; g < graphs; g++) {
+            NetworkGraph networkGraph = CyclicDependencyComparisonTest.randomGraph(random, 1 + random.nextInt(maxNodes));
+            // Every other graph only calls services of greater name, so it has no cycles
+            boolean dag = g % 2 == 0;
+            if (dag) {
+                networkGraph.getEdges().removeIf(edge -> edge.getSource().compareTo(edge.getTarget()) >= 0);
+            }
+            CompactGraph graph = new CompactGraph(networkGraph);
+            Map<String, Set<String>> successors = CyclicDependencyComparisonTest.successors(networkGraph);
+            Map<String, Set<String>> reachable = CyclicDependencyComparisonTest.reachable(successors);
+
+            List<List<String>> found = new ArrayList<>();
+            serviceChainService.findServiceChains(graph, chain -> found.add(chain.getChain()));
+            Set<List<String>> foundSet = new HashSet<>(found);
+            bruteForce &= found.size() == foundSet.size() && foundSet.equals(bruteForceChains(successors, reachable));
+
+            List<ServiceChain> deprecated = serviceChainService.getServiceChains(graph);
+            Set<List<String>> filtered = new HashSet<>();
+            for (ServiceChain serviceChain : deprecated) {
+                List<String> chain = serviceChain.getChain();
+                if (!calledFromOtherComponent(chain.get(0), networkGraph, reachable) && !followsCallInsideComponent(chain, reachable)) {
+                    filtered.add(chain);
+                }
+            }
+            contained &= foundSet.containsAll(filtered);
+            if (dag) {
+                acyclic &= foundSet.equals(filtered);
+            }
+
+            deprecatedCount += deprecated.size();
+            filteredCount += filtered.size();
+            foundCount += found.size();
+        }
+
+        // Output results
+        System.out.println("Graphs: " + graphs + ", deprecated chains: " + deprecatedCount
+                + ", after filtering: " + filteredCount + ", found: " + foundCount);
+        System.out.println("Brute force: " + bruteForce);
+        System.out.println("Contains filtered: " + contained);
+        System.out.println("Acyclic: " + acyclic);
+    }
+
+    private static boolean sameComponent(String a, String b, Map<String, Set<String>> reachable) {
+        return a.equals(b) || (reachable.get(a).contains(b) && reachable.get(b).contains(a));
+    }
+
+    private static boolean calledFromOtherComponent(String service, NetworkGraph graph, Map<String, Set<String>> reachable) {
+        for (Edge edge : graph.getEdges()) {
+            if (edge.getTarget().equals(service) && !sameComponent(edge.getSource(), service, reachable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean followsCallInsideComponent(List<String> chain, Map<String, Set<String>> reachable) {
+        for (int i = 0; i + 1 < chain.size(); i++) {
+            if (sameComponent(chain.get(i), chain.get(i + 1), reachable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every path of at least two services over calls between components, from a service no other
+     * component calls to a service calling no other component
+     */
+    private static Set<List<String>> bruteForceChains(Map<String, Set<String>> successors, Map<String, Set<String>> reachable) {
+        Map<String, Set<String>> crossing = new TreeMap<>();
+        Set<String> called = new HashSet<>();
+        for (String service : successors.keySet()) {
+            crossing.put(service, new TreeSet<>());
+            for (String next : successors.get(service)) {
+                if (!sameComponent(service, next, reachable)) {
+                    crossing.get(service).add(next);
+                    called.add(next);
+                }
+            }
+        }
+
+        Set<List<String>> chains = new HashSet<>();
+        for (String service : crossing.keySet()) {
+            if (!called.contains(service)) {
+                List<String> path = new ArrayList<>();
+                path.add(service);
+                extendChain(path, crossing, chains);
+            }
+        }
+        return chains;
+    }
+
+    private static void extendChain(List<String> path, Map<String, Set<String>> crossing, Set<List<String>> chains) {
+        Set<String> next = crossing.get(path.get(path.size() - 1));
+        if (next.isEmpty() && path.size() >= ServiceChainService.DEFAULT_THRESHOLD) {
+            chains.add(new ArrayList<>(path));
+        }
+        for (String service : next) {
+            path.add(service);
+            extendChain(path, crossing, chains);
+            path.remove(path.size() - 1);
+        }
+    }
+}
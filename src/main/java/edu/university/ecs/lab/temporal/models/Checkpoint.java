@@ -0,0 +1,28 @@
+package edu.university.ecs.lab.temporal.models;
+
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Represents the IR of the system at one commit of a history run, from which
+ * an interrupted run can be resumed
+ */
+@Getter
+@AllArgsConstructor
+public class Checkpoint {
+    /**
+     * The index of the commit in the analyzed commit list, oldest first
+     */
+    private final int commitIndex;
+
+    /**
+     * The commitID the IR was built for
+     */
+    private final String commitID;
+
+    /**
+     * The IR at commitID
+     */
+    private final MicroserviceSystem microserviceSystem;
+}
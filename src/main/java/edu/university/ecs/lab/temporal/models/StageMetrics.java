@@ -0,0 +1,89 @@
+package edu.university.ecs.lab.temporal.models;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents the throughput of one stage of the history pipeline and the depth of the queue
+ * feeding it. Counters are updated concurrently by the workers of the stage. The analysis
+ * server keeps one per endpoint, an item there being a request.
+ */
+@Getter
+public class StageMetrics {
+    /**
+     * The name of the stage
+     */
+    private final String name;
+
+    /**
+     * Number of commits processed by the stage
+     */
+    private final AtomicLong items = new AtomicLong();
+
+    /**
+     * Total time spent processing, summed over the workers of the stage
+     */
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    /**
+     * Longest time spent processing a single item
+     */
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Sum, count and maximum of the sampled input queue depths
+     */
+    private final AtomicLong queueDepthSum = new AtomicLong();
+    private final AtomicLong queueDepthSamples = new AtomicLong();
+    private final AtomicLong queueDepthMax = new AtomicLong();
+
+    public StageMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record one processed commit
+     *
+     * @param startNanos the {@link System#nanoTime()} at which processing started
+     */
+    public void record(long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        items.incrementAndGet();
+        busyNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Record the depth of the input queue when the stage takes an item
+     *
+     * @param depth the number of items waiting in the queue
+     */
+    public void sampleQueueDepth(int depth) {
+        queueDepthSum.addAndGet(depth);
+        queueDepthSamples.incrementAndGet();
+        queueDepthMax.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * @return commits processed per second of busy time, over all workers of the stage
+     */
+    public double getThroughput() {
+        long busy = busyNanos.get();
+        return busy == 0 ? 0 : items.get() * 1e9 / busy;
+    }
+
+    /**
+     * @return the average sampled depth of the input queue
+     */
+    public double getAverageQueueDepth() {
+        long samples = queueDepthSamples.get();
+        return samples == 0 ? 0 : (double) queueDepthSum.get() / samples;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-6s %6d commits %9.1f commits/s busy %8.1f ms queue avg %5.1f max %3d",
+                name, items.get(), getThroughput(), busyNanos.get() / 1e6, getAverageQueueDepth(), queueDepthMax.get());
+    }
+}
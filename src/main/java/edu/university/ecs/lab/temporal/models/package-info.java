@@ -0,0 +1,5 @@
+/**
+ * This package contains the models used by the commit history analysis, such as the
+ * per-stage metrics of the analysis pipeline and the checkpoints of a run.
+ */
+package edu.university.ecs.lab.temporal.models;
@@ -0,0 +1,169 @@
+package edu.university.ecs.lab.temporal.services;
+
+import com.google.gson.JsonParser;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.temporal.models.Checkpoint;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service writing periodic checkpoints of the IR during a history run and finding the newest
+ * valid one to resume from. Checkpoints are stored as compact JSON named after the index and id
+ * of their commit, each written to a temporary file first and renamed into place so a crash
+ * during a write never leaves a truncated checkpoint behind.
+ */
+public class CheckpointService {
+    /**
+     * Default number of checkpoints kept on disk, older ones are deleted
+     */
+    public static final int DEFAULT_RETAINED = 2;
+
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String CHECKPOINT_EXTENSION = ".json";
+    private static final Pattern CHECKPOINT_NAME = Pattern.compile("checkpoint-(\\d+)-([0-9a-f]+)\\.json");
+
+    private final File checkpointDirectory;
+    private final int interval;
+    private final int retained;
+
+    /**
+     * @param checkpointDirectory directory to keep checkpoints in, created if absent
+     * @param interval write a checkpoint every interval commits
+     */
+    public CheckpointService(String checkpointDirectory, int interval) {
+        this(checkpointDirectory, interval, DEFAULT_RETAINED);
+    }
+
+    /**
+     * @param checkpointDirectory directory to keep checkpoints in, created if absent
+     * @param interval write a checkpoint every interval commits
+     * @param retained number of checkpoints kept on disk
+     */
+    public CheckpointService(String checkpointDirectory, int interval, int retained) {
+        this.checkpointDirectory = new File(checkpointDirectory);
+        this.interval = Math.max(1, interval);
+        this.retained = Math.max(1, retained);
+
+        if (!this.checkpointDirectory.isDirectory() && !this.checkpointDirectory.mkdirs()) {
+            Error.reportAndExit(Error.INVALID_REPO_PATHS);
+        }
+    }
+
+    /**
+     * @param commitIndex the index of the commit just merged
+     * @return true if a checkpoint should be written after the commit
+     */
+    public boolean isDue(int commitIndex) {
+        return commitIndex % interval == 0;
+    }
+
+    /**
+     * This method writes the IR at a commit atomically and deletes the older checkpoints beyond the retained count
+     *
+     * @param commitIndex the index of the commit in the analyzed commit list
+     * @param microserviceSystem the IR at the commit, its commitID names the checkpoint
+     */
+    public void writeCheckpoint(int commitIndex, MicroserviceSystem microserviceSystem) {
+        File checkpointFile = getCheckpointFile(commitIndex, microserviceSystem.getCommitID());
+        try {
+            File tempFile = File.createTempFile("checkpoint", TEMP_EXTENSION, checkpointDirectory);
+            JsonReadWriteUtils.writeToJSON(tempFile.getPath(), microserviceSystem, false);
+
+            // Make the contents durable before they become visible under the final name
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Error.reportAndExit(Error.INVALID_JSON_WRITE);
+        }
+
+        System.out.println("Successfully wrote checkpoint to: \"" + checkpointFile.getName() + "\"");
+
+        // Checkpoints above the one just written are left to the runs that wrote them
+        File[] checkpoints = Arrays.stream(listCheckpoints())
+                .filter(file -> file.getName().compareTo(checkpointFile.getName()) <= 0)
+                .toArray(File[]::new);
+        for (int i = retained; i < checkpoints.length; i++) {
+            checkpoints[i].delete();
+        }
+    }
+
+    /**
+     * This method finds the newest checkpoint that belongs to the given history and can be read back.
+     * Checkpoints of other histories and unreadable files are skipped, interrupted writes are removed.
+     *
+     * @param commits the commits being analyzed, oldest first
+     * @return the newest valid checkpoint or null if there is none
+     */
+    public Checkpoint findLatestCheckpoint(List<String> commits) {
+        for (File file : listCheckpoints()) {
+            Matcher matcher = CHECKPOINT_NAME.matcher(file.getName());
+            matcher.matches();
+            int commitIndex = Integer.parseInt(matcher.group(1));
+            String commitID = matcher.group(2);
+
+            if (commitIndex >= commits.size() || !commits.get(commitIndex).equals(commitID)) {
+                continue;
+            }
+
+            MicroserviceSystem microserviceSystem = readCheckpoint(file);
+            if (microserviceSystem != null && commitID.equals(microserviceSystem.getCommitID())) {
+                return new Checkpoint(commitIndex, commitID, microserviceSystem);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Read a checkpoint without exiting on failure, a corrupt checkpoint is simply skipped
+     */
+    private MicroserviceSystem readCheckpoint(File file) {
+        try (Reader reader = new BufferedReader(new FileReader(file))) {
+            return JsonReadWriteUtils.fromJsonElement(JsonParser.parseReader(reader), MicroserviceSystem.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * List the checkpoints in the directory, newest first, removing files left behind by interrupted writes
+     */
+    private File[] listCheckpoints() {
+        File[] files = checkpointDirectory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_EXTENSION)) {
+                file.delete();
+            }
+        }
+
+        return Arrays.stream(files)
+                .filter(file -> CHECKPOINT_NAME.matcher(file.getName()).matches())
+                .sorted(Comparator.comparing(File::getName).reversed())
+                .toArray(File[]::new);
+    }
+
+    private File getCheckpointFile(int commitIndex, String commitID) {
+        return new File(checkpointDirectory, String.format("checkpoint-%08d-%s", commitIndex, commitID) + CHECKPOINT_EXTENSION);
+    }
+}
@@ -0,0 +1,315 @@
+package edu.university.ecs.lab.temporal.services;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.services.GitDiffSession;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
+import edu.university.ecs.lab.common.utils.PathGlobFilter;
+import edu.university.ecs.lab.delta.models.SystemChange;
+import edu.university.ecs.lab.delta.services.DeltaExtractionService;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+import edu.university.ecs.lab.temporal.models.Checkpoint;
+import edu.university.ecs.lab.temporal.models.StageMetrics;
+import org.eclipse.jgit.diff.DiffEntry;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service analyzing the history of a repository commit by commit. The IR of the first commit is
+ * extracted and the change of every following commit is merged into it, overlapping three stages
+ * in a bounded producer/consumer pipeline:
+ * <p>
+ * - diff: one thread computing the git differences of each pair of consecutive commits
+ * - parse: a pool of workers reading the changed blobs and parsing them into a SystemChange
+ * - merge: the calling thread applying the changes to the IR in commit order
+ * <p>
+ * At most queueCapacity commits are in flight between the diff and merge stages, so a slow merge
+ * throttles diffing and parsing instead of buffering the whole history.
+ * <p>
+ * With a {@link CheckpointService} the IR is checkpointed periodically during the merge stage and
+ * an interrupted run can be resumed from the newest valid checkpoint instead of the first commit.
+ */
+public class HistoryAnalysisService {
+    /**
+     * Default number of commits in flight between the diff and merge stages
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    /**
+     * Pipeline message marking the end of the input of a stage
+     */
+    private static final Task END = new Task(-1, null, null, null);
+
+    private final Config config;
+    private final GitService gitService;
+    private final ParseCacheService parseCache;
+    private final int parallelism;
+    private final int queueCapacity;
+    private final CheckpointService checkpointService;
+
+    private final StageMetrics diffMetrics = new StageMetrics("diff");
+    private final StageMetrics parseMetrics = new StageMetrics("parse");
+    private final StageMetrics mergeMetrics = new StageMetrics("merge");
+
+    /**
+     * A commit moving through the pipeline
+     */
+    private static class Task {
+        private final int index;
+        private final String commitOld;
+        private final String commitNew;
+        private final List<DiffEntry> differences;
+        private SystemChange systemChange;
+
+        private Task(int index, String commitOld, String commitNew, List<DiffEntry> differences) {
+            this.index = index;
+            this.commitOld = commitOld;
+            this.commitNew = commitNew;
+            this.differences = differences;
+        }
+    }
+
+    /**
+     * @param config the configuration of the system
+     * @param gitService the git service of the repository, commits are read from its object database
+     * @param parseCache the parse cache shared by all workers or null
+     * @param parallelism the number of parse workers
+     * @param queueCapacity the number of commits in flight between the diff and merge stages
+     */
+    public HistoryAnalysisService(Config config, GitService gitService, ParseCacheService parseCache, int parallelism, int queueCapacity) {
+        this(config, gitService, parseCache, parallelism, queueCapacity, null);
+    }
+
+    /**
+     * @param config the configuration of the system
+     * @param gitService the git service of the repository, commits are read from its object database
+     * @param parseCache the parse cache shared by all workers or null
+     * @param parallelism the number of parse workers
+     * @param queueCapacity the number of commits in flight between the diff and merge stages
+     * @param checkpointService the service checkpointing the IR during the run or null
+     */
+    public HistoryAnalysisService(Config config, GitService gitService, ParseCacheService parseCache, int parallelism,
+                                  int queueCapacity, CheckpointService checkpointService) {
+        this.checkpointService = checkpointService;
+        this.config = config;
+        this.gitService = gitService;
+        this.parseCache = parseCache;
+        this.parallelism = Math.max(1, parallelism);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     * Extract the IR of the first commit and merge the changes of every following commit into it
+     *
+     * @param commits the commits to analyze, oldest first
+     * @param snapshotInterval write ./output/IR-[commit].json every snapshotInterval commits,
+     *                         or {@link MergeService#FINAL_ONLY} to write only the final IR
+     * @return the IR of the last commit
+     */
+    public MicroserviceSystem analyze(List<String> commits, int snapshotInterval) {
+        return analyze(commits, snapshotInterval, false);
+    }
+
+    /**
+     * Merge the changes of every commit into the IR of the first commit, or of the newest valid
+     * checkpoint when resuming
+     *
+     * @param commits the commits to analyze, oldest first
+     * @param snapshotInterval write ./output/IR-[commit].json every snapshotInterval commits,
+     *                         or {@link MergeService#FINAL_ONLY} to write only the final IR
+     * @param resume whether to start from the newest valid checkpoint if there is one
+     * @return the IR of the last commit
+     */
+    public MicroserviceSystem analyze(List<String> commits, int snapshotInterval, boolean resume) {
+        Checkpoint checkpoint = null;
+        if (resume && checkpointService != null) {
+            checkpoint = checkpointService.findLatestCheckpoint(commits);
+        }
+
+        int start;
+        MicroserviceSystem microserviceSystem;
+        if (checkpoint != null) {
+            System.out.println("Resuming from checkpoint at commit " + checkpoint.getCommitIndex() + ": " + checkpoint.getCommitID());
+            start = checkpoint.getCommitIndex();
+            microserviceSystem = checkpoint.getMicroserviceSystem();
+        } else {
+            IRExtractionService irExtractionService = new IRExtractionService(config, gitService, parallelism, parseCache);
+            start = 0;
+            microserviceSystem = irExtractionService.extractIR(commits.get(0));
+        }
+
+        MergeService mergeService = new MergeService(microserviceSystem, config);
+        analyze(commits, start, mergeService, snapshotInterval);
+        mergeService.writeSnapshot("IR.json");
+
+        return mergeService.getMicroserviceSystem();
+    }
+
+    /**
+     * Merge the changes of commits[start + 1] onwards into the IR of commits[start]
+     *
+     * @param commits the commits to analyze, oldest first
+     * @param start the index of the commit the IR of mergeService represents
+     * @param mergeService the merge service holding the IR of commits[start]
+     * @param snapshotInterval write ./output/IR-[commit].json every snapshotInterval commits,
+     *                         or {@link MergeService#FINAL_ONLY} to write no snapshots
+     */
+    public void analyze(List<String> commits, int start, MergeService mergeService, int snapshotInterval) {
+        analyze(commits, start, commits.size() - 1, mergeService, snapshotInterval);
+    }
+
+    /**
+     * Merge the changes of commits[start + 1] up to and including commits[end] into the IR of commits[start]
+     *
+     * @param commits the commits to analyze, oldest first
+     * @param start the index of the commit the IR of mergeService represents
+     * @param end the index of the last commit to merge
+     * @param mergeService the merge service holding the IR of commits[start]
+     * @param snapshotInterval write ./output/IR-[commit].json every snapshotInterval commits,
+     *                         or {@link MergeService#FINAL_ONLY} to write no snapshots
+     */
+    public void analyze(List<String> commits, int start, int end, MergeService mergeService, int snapshotInterval) {
+        BlockingQueue<Task> diffed = new ArrayBlockingQueue<>(queueCapacity + parallelism);
+        BlockingQueue<Task> parsed = new ArrayBlockingQueue<>(queueCapacity + parallelism);
+        Semaphore inFlight = new Semaphore(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism + 1);
+        int merged = start;
+
+        try {
+            executor.submit(() -> diff(commits, start, end, diffed, inFlight, failure));
+            for (int i = 0; i < parallelism; i++) {
+                executor.submit(() -> parse(diffed, parsed, failure));
+            }
+
+            merged = merge(parsed, inFlight, start + 1, mergeService, snapshotInterval, failure) - 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failure.get() != null) {
+            failure.get().printStackTrace();
+            Error.reportAndExit(Error.HISTORY_FAILED);
+        }
+
+        // A commit that never reached the merge stage must not leave a silently shortened history
+        if (merged != end) {
+            System.err.println("History merged up to commit " + merged + " of " + end);
+            Error.reportAndExit(Error.HISTORY_FAILED);
+        }
+    }
+
+    /**
+     * Diff stage, computes the differences of every pair of consecutive commits in one diff session
+     */
+    private void diff(List<String> commits, int start, int end, BlockingQueue<Task> diffed, Semaphore inFlight, AtomicReference<Throwable> failure) {
+        try (GitDiffSession diffSession = gitService.openDiffSession(true, PathGlobFilter.createSourceFilter(config))) {
+            Iterator<GitDiffSession.CommitDiff> commitDiffs = diffSession.diffRange(commits.subList(start, end + 1));
+
+            for (int i = start + 1; commitDiffs.hasNext() && failure.get() == null; i++) {
+                // Wait until the merge stage has room for another commit
+                inFlight.acquire();
+
+                long startNanos = System.nanoTime();
+                GitDiffSession.CommitDiff commitDiff = commitDiffs.next();
+                diffMetrics.record(startNanos);
+
+                diffed.put(new Task(i, commitDiff.getCommitOld(), commitDiff.getCommitNew(), commitDiff.getDifferences()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            // One end marker per parse worker
+            for (int i = 0; i < parallelism; i++) {
+                diffed.offer(END);
+            }
+        }
+    }
+
+    /**
+     * Parse stage, reads and parses the changed files of each commit
+     */
+    private void parse(BlockingQueue<Task> diffed, BlockingQueue<Task> parsed, AtomicReference<Throwable> failure) {
+        try {
+            while (true) {
+                parseMetrics.sampleQueueDepth(diffed.size());
+                Task task = diffed.take();
+                if (task == END) {
+                    break;
+                }
+
+                long startNanos = System.nanoTime();
+                DeltaExtractionService deltaExtractionService = new DeltaExtractionService(config, gitService, task.commitOld, task.commitNew, parseCache);
+                task.systemChange = deltaExtractionService.extractDelta(task.differences);
+                parseMetrics.record(startNanos);
+
+                parsed.put(task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            // Errors too, e.g. a StackOverflowError while parsing, or the merge would wait forever
+            failure.compareAndSet(null, e);
+        } finally {
+            parsed.offer(END);
+        }
+    }
+
+    /**
+     * Merge stage, applies the parsed changes in commit order. Workers may finish out of
+     * order so early commits wait in a reorder buffer bounded by the in flight permits.
+     *
+     * @return the index of the first commit not merged
+     */
+    private int merge(BlockingQueue<Task> parsed, Semaphore inFlight, int next, MergeService mergeService,
+                      int snapshotInterval, AtomicReference<Throwable> failure) throws InterruptedException {
+        Map<Integer, Task> pending = new HashMap<>();
+        int ended = 0;
+
+        while (ended < parallelism && failure.get() == null) {
+            mergeMetrics.sampleQueueDepth(parsed.size());
+            Task task = parsed.take();
+            if (task == END) {
+                ended++;
+                continue;
+            }
+
+            pending.put(task.index, task);
+            while (pending.containsKey(next)) {
+                Task ready = pending.remove(next);
+
+                long startNanos = System.nanoTime();
+                mergeService.applyChange(ready.systemChange);
+                if (snapshotInterval > MergeService.FINAL_ONLY && next % snapshotInterval == 0) {
+                    mergeService.writeSnapshot("IR-" + ready.commitNew + ".json");
+                }
+                if (checkpointService != null && checkpointService.isDue(next)) {
+                    checkpointService.writeCheckpoint(next, mergeService.getMicroserviceSystem());
+                }
+                mergeMetrics.record(startNanos);
+
+                inFlight.release();
+                next++;
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * @return the metrics of the diff, parse and merge stages
+     */
+    public List<StageMetrics> getMetrics() {
+        return List.of(diffMetrics, parseMetrics, mergeMetrics);
+    }
+}
@@ -0,0 +1,143 @@
+package edu.university.ecs.lab.temporal.services;
+
+import edu.university.ecs.lab.common.config.Config;
+import edu.university.ecs.lab.common.error.Error;
+import edu.university.ecs.lab.common.models.MicroserviceSystem;
+import edu.university.ecs.lab.common.services.GitService;
+import edu.university.ecs.lab.common.services.ParseCacheService;
+import edu.university.ecs.lab.common.utils.JsonReadWriteUtils;
+import edu.university.ecs.lab.intermediate.create.services.IRExtractionService;
+import edu.university.ecs.lab.intermediate.merge.services.MergeService;
+import edu.university.ecs.lab.temporal.models.StageMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service analyzing the history of a repository in parallel segments. Merging is sequential
+ * within a history but a full IR can be extracted at any commit, so the commit list is split
+ * into contiguous segments that each start from an independently extracted IR and run their
+ * own {@link HistoryAnalysisService} pipeline at the same time.
+ * <p>
+ * Consecutive segments share their boundary commit: one segment ends by merging it and the
+ * next starts from the IR extracted at it. The two IRs are compared to check the stitch.
+ * Snapshots are named by commit and selected by the index of the commit in the whole history,
+ * so the snapshots of all segments form the same series as a sequential run.
+ */
+public class SegmentedHistoryService {
+    private final Config config;
+    private final GitService gitService;
+    private final ParseCacheService parseCache;
+    private final int segments;
+    private final int parallelism;
+    private final int queueCapacity;
+
+    private final List<HistoryAnalysisService> segmentServices = new ArrayList<>();
+
+    /**
+     * @param config the configuration of the system
+     * @param gitService the git service of the repository, commits are read from its object database
+     * @param parseCache the parse cache shared by all segments or null
+     * @param segments the number of segments analyzed in parallel
+     * @param parallelism the total number of parse workers, divided among the segments
+     * @param queueCapacity the number of commits in flight within each segment
+     */
+    public SegmentedHistoryService(Config config, GitService gitService, ParseCacheService parseCache, int segments, int parallelism, int queueCapacity) {
+        this.config = config;
+        this.gitService = gitService;
+        this.parseCache = parseCache;
+        this.segments = Math.max(1, segments);
+        this.parallelism = Math.max(1, parallelism);
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Analyze the commits in parallel segments and stitch the results in commit order
+     *
+     * @param commits the commits to analyze, oldest first
+     * @param snapshotInterval write ./output/IR-[commit].json every snapshotInterval commits,
+     *                         or {@link MergeService#FINAL_ONLY} to write only the final IR
+     * @return the IR of the last commit
+     */
+    public MicroserviceSystem analyze(List<String> commits, int snapshotInterval) {
+        // Every segment merges at least one commit
+        int segmentCount = Math.max(1, Math.min(segments, commits.size() - 1));
+        int workers = Math.max(1, parallelism / segmentCount);
+
+        int[] bounds = new int[segmentCount + 1];
+        for (int i = 0; i <= segmentCount; i++) {
+            bounds[i] = (int) ((long) i * (commits.size() - 1) / segmentCount);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(segmentCount);
+        List<Future<MicroserviceSystem[]>> futures = new ArrayList<>();
+        segmentServices.clear();
+
+        for (int i = 0; i < segmentCount; i++) {
+            int start = bounds[i];
+            int end = bounds[i + 1];
+            HistoryAnalysisService historyAnalysisService = new HistoryAnalysisService(config, gitService, parseCache, workers, queueCapacity);
+            segmentServices.add(historyAnalysisService);
+
+            futures.add(executor.submit(() -> {
+                IRExtractionService irExtractionService = new IRExtractionService(config, gitService, workers, parseCache);
+                MicroserviceSystem first = irExtractionService.extractIR(commits.get(start));
+
+                // Merge into a copy so the extracted IR is kept to check the stitch afterwards
+                MergeService mergeService = new MergeService(copy(first), config);
+                historyAnalysisService.analyze(commits, start, end, mergeService, snapshotInterval);
+
+                return new MicroserviceSystem[]{first, mergeService.getMicroserviceSystem()};
+            }));
+        }
+
+        List<MicroserviceSystem[]> results = new ArrayList<>();
+        try {
+            for (Future<MicroserviceSystem[]> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            Error.reportAndExit(Error.HISTORY_FAILED);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Stitch the segments, the merged end of each should equal the extracted start of the next
+        for (int i = 0; i + 1 < results.size(); i++) {
+            if (!Objects.equals(copy(results.get(i)[1]), results.get(i + 1)[0])) {
+                System.out.println("Segment " + i + " does not match the IR extracted at commit " + bounds[i + 1] + ": " + commits.get(bounds[i + 1]));
+            }
+        }
+
+        MergeService mergeService = new MergeService(results.get(results.size() - 1)[1], config);
+        mergeService.writeSnapshot("IR.json");
+
+        return mergeService.getMicroserviceSystem();
+    }
+
+    /**
+     * Deep copy an IR through its JSON form. This also rebuilds the hash sets of a merged IR,
+     * whose classes were mutated after being hashed and would not compare equal otherwise.
+     */
+    private static MicroserviceSystem copy(MicroserviceSystem microserviceSystem) {
+        return JsonReadWriteUtils.fromJsonElement(microserviceSystem.toJsonObject(), MicroserviceSystem.class);
+    }
+
+    /**
+     * @return the metrics of the diff, parse and merge stages of each segment of the last run
+     */
+    public List<List<StageMetrics>> getMetrics() {
+        List<List<StageMetrics>> metrics = new ArrayList<>();
+        for (HistoryAnalysisService historyAnalysisService : segmentServices) {
+            metrics.add(historyAnalysisService.getMetrics());
+        }
+
+        return metrics;
+    }
+}
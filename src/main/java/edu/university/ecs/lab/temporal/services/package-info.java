@@ -0,0 +1,9 @@
+/**
+ * This package provides services for analyzing the commit history of a repository.
+ *
+ * <p>The main service in this package extracts the IR of the first commit and merges the changes of every
+ * following commit into it, overlapping the diff, parse and merge stages in a bounded pipeline. Its progress
+ * can be checkpointed atomically so an interrupted run resumes from the newest valid checkpoint, and long
+ * histories can be split into commit ranges that are analyzed in parallel.</p>
+ */
+package edu.university.ecs.lab.temporal.services;